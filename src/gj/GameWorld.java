@@ -2,10 +2,16 @@ package gj;
 
 import java.awt.geom.Rectangle2D;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import gj.entities.Entity;
 import gj.entities.EntityList;
 import gj.graphics.Camera;
-import gj.graphics.RenderWindow;
+import gj.graphics.RenderTarget;
+import gj.script.RunningScript;
+import gj.script.Script;
+import gj.script.ScriptScheduler;
+import gj.util.TimingWheel;
 
 /**
  * An instance of this class represents a simulated game world that can contain
@@ -14,6 +20,12 @@ import gj.graphics.RenderWindow;
  * coordinate space (which is independent of the actual coordinate space used
  * for display).
  * <p>
+ * A running world uses two threads: the main loop, which simulates the world
+ * at a fixed tick rate, and the render loop, which draws the world at the
+ * display's refresh rate. The two only share immutable snapshots of the world
+ * that the main loop publishes at the end of each tick, so a slow frame never
+ * delays the next tick.
+ * <p>
  * Note that each game world created can only be used once - when a world is
  * terminated using the stop() method, it cannot be started again.
  * 
@@ -48,37 +60,134 @@ public class GameWorld {
      */
     private final MainLoop mainLoop;
     
-    public GameWorld(int tickRate, RenderWindow window) {
+    /**
+     * This instance represents the thread that renders the world.
+     */
+    private final RenderLoop renderLoop;
+    
+    /**
+     * The number of frames the render loop aims to draw each second.
+     */
+    private final int frameRate;
+    
+    /**
+     * The number of ticks that have been simulated since the world started.
+     */
+    private volatile long tickCount;
+    
+    /**
+     * The time taken by the most recent iteration of the main loop, and by
+     * the snapshot published at the end of it, in nanoseconds.
+     */
+    private volatile long lastTickNanos, lastSnapshotNanos;
+    
+    /**
+     * The listeners notified at the end of each tick. A copy-on-write list is
+     * used so that listeners can be added from other threads while the main
+     * loop is running.
+     */
+    private final List<TickListener> tickListeners;
+    
+    /**
+     * The scheduler that runs the behaviour scripts of this world's entities.
+     */
+    private final ScriptScheduler scripts;
+    
+    /**
+     * The timing wheel holding delayed and repeating events, which advances by
+     * one slot per tick.
+     */
+    private final TimingWheel timers;
+    
+    /**
+     * While paused, the world isn't simulated (so no ticks elapse and no timers
+     * fire), but it continues to be rendered.
+     */
+    private volatile boolean paused;
+    
+    /**
+     * If set to true, every tick simulates exactly 1/tickRate seconds rather
+     * than the time that actually elapsed, making the simulation deterministic.
+     */
+    private volatile boolean fixedTimeStep;
+    
+    /**
+     * Constructor for a new GameWorld that is rendered to the given target.
+     * 
+     * @param tickRate The number of ticks to simulate per second.
+     * @param window The RenderWindow to display the world in, or another
+     * RenderTarget such as an OffscreenTarget to render it without a display.
+     */
+    public GameWorld(int tickRate, RenderTarget window) {
         this.ents = new EntityList();
         this.tickRate = tickRate;
         this.latestUpdate = System.currentTimeMillis();
         this.camera = new Camera(this, window);
         this.mainLoop = new MainLoop();
+        this.renderLoop = new RenderLoop();
+        int refreshRate = window.getCurrentDisplayMode().getRefreshRate();
+        this.frameRate = (refreshRate != java.awt.DisplayMode.REFRESH_RATE_UNKNOWN) ? refreshRate : 60;
+        this.tickCount = 0;
+        this.tickListeners = new CopyOnWriteArrayList<>();
+        this.scripts = new ScriptScheduler();
+        this.timers = new TimingWheel();
+        this.paused = false;
+        this.fixedTimeStep = false;
     }
     
     public boolean addEntity(Entity ent) {
         return ents.addEntity(ent);
     }
     
+    /**
+     * Removes an entity from this world, cancelling any behaviour scripts it
+     * is running. If the entity is attached to a parent, it is detached (at
+     * the same position in the world) so that the parent doesn't keep it
+     * alive. Any entities attached to the removed entity stay attached to it;
+     * they should be removed or detached by the caller.
+     * 
+     * @param ent The entity to remove.
+     * @return Whether the entity was in this world.
+     */
     public boolean removeEntity(Entity ent) {
-        return ents.removeEntity(ent);
+        if (!ents.removeEntity(ent)) return false;
+        scripts.cancelAll(ent);
+        if (ent.getParent() != null) {
+            Rectangle2D bounds = ent.getTransform().getWorldBounds();
+            double x = bounds.getX(), y = bounds.getY();
+            ent.setParent(null);
+            ent.getTransform().setPosition(x, y);
+        }
+        return true;
     }
     
     /**
-     * Starts the main loop for this game world.
+     * Starts the main loop and render loop for this game world.
      * 
      * @throws IllegalThreadStateException If the world has previously been
      * started.
      */
     public void start() throws IllegalThreadStateException {
+        camera.publishSnapshot(); // Give the renderer something to draw before the first tick.
         mainLoop.start();
+        renderLoop.start();
     }
     
     /**
-     * Shuts down this game world by interrupting the main loop.
+     * Shuts down this game world by interrupting the main loop and render
+     * loop. Unless called from one of those loops, this waits for both to
+     * finish, after which the camera's render threads are shut down.
      */
     public void stop() {
         mainLoop.interrupt();
+        renderLoop.interrupt();
+        try {
+            if (Thread.currentThread() != mainLoop) mainLoop.join();
+            if (Thread.currentThread() != renderLoop) renderLoop.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt(); // Let the caller see that it has been interrupted.
+        }
+        if (!renderLoop.isAlive() || Thread.currentThread() == renderLoop) camera.shutdown();
     }
     
     public Collection<Entity> getAllEntities() {
@@ -89,6 +198,135 @@ public class GameWorld {
         return ents.getIntersectingEntities(region);
     }
     
+    /**
+     * Starts running a behaviour script for the given entity, which will be
+     * resumed once per tick until it finishes.
+     * 
+     * @param ent The entity to run the script for.
+     * @param script The script to run.
+     * @return A handle that can be used to check on or cancel the script.
+     */
+    public RunningScript runScript(Entity ent, Script script) {
+        return scripts.start(ent, script);
+    }
+    
+    public ScriptScheduler getScriptScheduler() {
+        return scripts;
+    }
+    
+    /**
+     * Schedules a task to run once on the main loop thread after the given
+     * amount of simulated time. The delay is rounded to the nearest whole
+     * number of ticks (and is at least one tick), and time spent paused
+     * doesn't count towards it.
+     * 
+     * @param delay The time to wait, in seconds.
+     * @param task The task to run.
+     * @return A handle that can be used to cancel the task.
+     */
+    public TimingWheel.Timeout schedule(double delay, Runnable task) {
+        return timers.schedule(toTicks(delay), task);
+    }
+    
+    /**
+     * Schedules a task to run on the main loop thread after the given amount
+     * of simulated time and then repeatedly with the given period until it is
+     * cancelled. Both times are rounded to whole numbers of ticks.
+     * 
+     * @param delay The time before the first run, in seconds.
+     * @param period The time between runs, in seconds.
+     * @param task The task to run.
+     * @return A handle that can be used to cancel the task.
+     */
+    public TimingWheel.Timeout scheduleRepeating(double delay, double period, Runnable task) {
+        return timers.scheduleRepeating(toTicks(delay), Math.max(1, toTicks(period)), task);
+    }
+    
+    /**
+     * Acquires the timing wheel used for this world's scheduled events, which
+     * allows events to be scheduled in ticks rather than seconds. Like the
+     * rest of the world's state, it should only be used on the main loop
+     * thread once the world has started.
+     * 
+     * @return The TimingWheel driven by this world's ticks.
+     */
+    public TimingWheel getTimers() {
+        return timers;
+    }
+    
+    private long toTicks(double seconds) {
+        return Math.round(seconds * tickRate);
+    }
+    
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+    
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    /**
+     * Determines whether each tick simulates a fixed amount of time. When
+     * enabled, every tick simulates exactly 1/tickRate seconds regardless of
+     * how much real time has passed, so the same sequence of inputs always
+     * produces the same result.
+     * 
+     * @param fixed Whether to use a fixed time step.
+     */
+    public void setFixedTimeStep(boolean fixed) {
+        this.fixedTimeStep = fixed;
+    }
+    
+    /**
+     * Registers a listener to be notified each time this world completes a
+     * tick. Listeners are called on the main loop thread in the order in which
+     * they were added.
+     * 
+     * @param listener The TickListener to add.
+     */
+    public void addTickListener(TickListener listener) {
+        tickListeners.add(listener);
+    }
+    
+    public void removeTickListener(TickListener listener) {
+        tickListeners.remove(listener);
+    }
+    
+    /**
+     * Returns the number of ticks simulated by this world since it started.
+     * 
+     * @return The current tick count.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    /**
+     * Returns how long the most recently completed iteration of the main loop
+     * took. This covers everything the main loop does each tick: updating
+     * entities, resuming scripts, running scheduled events, notifying tick
+     * listeners and publishing the camera's snapshot. Since tick listeners are
+     * notified before the iteration ends, a listener sees the duration of the
+     * previous tick.
+     * 
+     * @return The duration of the most recent tick, in nanoseconds.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+    
+    /**
+     * Returns how long the camera took to capture and publish its snapshot of
+     * the world at the end of the most recently completed tick. This is part
+     * of the time returned by {@link #getLastTickNanos()}.
+     * 
+     * @return The duration of the most recent snapshot, in nanoseconds.
+     */
+    public long getLastSnapshotNanos() {
+        return lastSnapshotNanos;
+    }
+    
     public Camera getCamera() {
         return camera;
     }
@@ -110,7 +348,37 @@ public class GameWorld {
                 double deltaTime = (curTime - latestUpdate) / 1000.0; // Time since the previous update, in SECONDS.
                 latestUpdate = curTime;
 
-                simulate(deltaTime);
+                long startTime = System.nanoTime();
+                if (!paused) simulate(fixedTimeStep ? 1.0 / tickRate : deltaTime);
+                long snapshotTime = System.nanoTime();
+                camera.publishSnapshot();
+                long endTime = System.nanoTime();
+                lastSnapshotNanos = endTime - snapshotTime;
+                lastTickNanos = endTime - startTime;
+            }
+        }
+    }
+    
+    private class RenderLoop extends Thread {
+        RenderLoop() {
+            super("RenderLoop");
+        }
+        
+        @Override
+        public final void run() {
+            long frameNanos = 1000000000L / frameRate;
+            long latestFrame = System.nanoTime();
+            while (!isInterrupted()) {
+                long curTime = System.nanoTime();
+                long wait = latestFrame + frameNanos - curTime;
+                if (wait > 0) {
+                    // Unlike the main loop, the renderer sleeps between frames so that it doesn't compete with the simulation for CPU time.
+                    try { Thread.sleep(wait / 1000000, (int)(wait % 1000000)); } catch (InterruptedException ex) { return; }
+                    continue;
+                }
+                
+                double deltaTime = (curTime - latestFrame) / 1000000000.0; // Time since the previous frame, in SECONDS.
+                latestFrame = curTime;
                 camera.render(deltaTime);
             }
         }
@@ -118,7 +386,9 @@ public class GameWorld {
     
     /**
      * Simulates this game world for the given amount of logical time. Each
-     * entity is updated in ascending order based on their heights.
+     * entity is updated in ascending order based on their heights, after
+     * which behaviour scripts are resumed, any scheduled events that fall due
+     * are run and all registered tick listeners are notified.
      * 
      * @param dt The amount of time to simulate, in seconds.
      */
@@ -126,5 +396,12 @@ public class GameWorld {
         for (Entity ent : ents) {
             ent.update(dt);
         }
+        scripts.tick(dt);
+        timers.advance();
+        
+        tickCount++;
+        for (TickListener l : tickListeners) {
+            l.tickCompleted(this, tickCount, dt);
+        }
     }
 }
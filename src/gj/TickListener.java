@@ -0,0 +1,22 @@
+package gj;
+
+/**
+ * The listener interface for receiving notifications each time a game world
+ * completes a simulation tick. Listeners are invoked on the thread running the
+ * world's main loop, after every entity has been updated, which makes this the
+ * appropriate place to observe a consistent view of the world's entities.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public interface TickListener {
+    /**
+     * Invoked once the given game world has finished simulating a tick.
+     *
+     * @param world The GameWorld that has just been updated.
+     * @param tick The number of ticks the world has simulated so far, including
+     * this one. The first tick is numbered 1.
+     * @param dt The amount of time that was simulated by the tick, in seconds.
+     */
+    void tickCompleted(GameWorld world, long tick, double dt);
+}
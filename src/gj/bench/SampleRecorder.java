@@ -0,0 +1,74 @@
+package gj.bench;
+
+import java.util.Arrays;
+
+/**
+ * Collects duration samples, such as the time taken by each tick, and reports
+ * percentiles over them. Samples are kept in a primitive array that is only
+ * grown occasionally, so recording doesn't add garbage of its own to the run
+ * being measured.
+ * <p>
+ * Samples may be recorded from one thread while another reads the results.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+class SampleRecorder {
+    private long[] samples;
+    private int count;
+
+    /**
+     * Constructor for a new SampleRecorder.
+     *
+     * @param expectedSamples The number of samples expected to be recorded,
+     * used to size the initial array.
+     */
+    SampleRecorder(int expectedSamples) {
+        this.samples = new long[Math.max(16, expectedSamples)];
+        this.count = 0;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+    }
+
+    synchronized void clear() {
+        count = 0;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Computes the given percentiles of the samples recorded so far, using
+     * the nearest-rank method.
+     *
+     * @param percentiles The percentiles to compute, each between 0 and 100.
+     * @return The value of each percentile in milliseconds, or 0 for every
+     * percentile if no samples have been recorded.
+     */
+    double[] percentilesMillis(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+
+        double[] result = new double[percentiles.length];
+        if (sorted.length == 0) return result;
+        for (int i = 0; i < percentiles.length; i++) {
+            int rank = (int)Math.ceil(percentiles[i] / 100.0 * sorted.length);
+            result[i] = sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+        }
+        return result;
+    }
+
+    synchronized double meanMillis() {
+        if (count == 0) return 0;
+        double total = 0;
+        for (int i = 0; i < count; i++) total += samples[i];
+        return total / count / 1e6;
+    }
+}
@@ -0,0 +1,211 @@
+package gj.bench;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A declarative description of a benchmark run: how big the world is, how
+ * many entities it starts with and how they move, how quickly entities are
+ * spawned and despawned, the path the camera follows and the size of the
+ * image it renders to. Scenarios are read from properties files, for example:
+ * <pre>
+ * name=crowd
+ * duration=30
+ * entities=5000
+ * movement=wander
+ * spawnRate=50
+ * despawnRate=50
+ * camera.path=0,0;3000,0;3000,2000;0,2000
+ * camera.speed=400
+ * limit.frameP99Millis=16
+ * </pre>
+ * Every key is optional. See {@link #load(Path)} for the full list and the
+ * defaults used for missing keys.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class Scenario {
+    /**
+     * The ways in which a scenario's entities can move.
+     */
+    public enum Movement {
+        /** Entities never move. */
+        STATIC,
+        /** Entities move in a straight line, wrapping around at the edges of the world. */
+        LINEAR,
+        /** Entities circle around the centre of the world. */
+        ORBIT,
+        /** Entities change direction at random, bouncing off the edges of the world. */
+        WANDER
+    }
+
+    final String name;
+
+    /**
+     * How long the scenario runs for, and how much of that time is discarded
+     * to let the JIT compiler and heap settle, in seconds.
+     */
+    final double duration, warmup;
+
+    final int tickRate;
+    final boolean fixedTimeStep;
+    final long seed;
+
+    final double worldWidth, worldHeight;
+    final int entities;
+    final Movement movement;
+    final double speed;
+
+    /**
+     * The number of distinct sprites shared between entities, and the number
+     * of Z-heights they are spread across.
+     */
+    final int sprites, layers;
+    final int spriteSize;
+
+    /**
+     * The number of entities added and removed per second of simulated time.
+     */
+    final double spawnRate, despawnRate;
+
+    /**
+     * The points the camera moves between, in order, returning to the first
+     * point after the last. The camera stays still if there is only one.
+     */
+    final List<Point2D> cameraPath;
+    final double cameraSpeed;
+    final double cameraWidth, cameraHeight;
+
+    final int renderWidth, renderHeight;
+    final int renderThreads;
+    final double frameBudget;
+
+    /**
+     * The limits the run must stay within to pass, or 0 where no limit is
+     * set.
+     */
+    final double tickP99Limit, frameP99Limit, allocationLimit, gcPauseLimit;
+
+    private Scenario(String defaultName, Properties p) {
+        this.name = p.getProperty("name", defaultName);
+        this.duration = getDouble(p, "duration", 30);
+        this.warmup = getDouble(p, "warmup", Math.min(5, duration / 5));
+        this.tickRate = getInt(p, "tickRate", 60);
+        this.fixedTimeStep = Boolean.parseBoolean(p.getProperty("fixedTimeStep", "true"));
+        this.seed = (long)getDouble(p, "seed", 42);
+        this.worldWidth = getDouble(p, "world.width", 4000);
+        this.worldHeight = getDouble(p, "world.height", 4000);
+        this.entities = getInt(p, "entities", 1000);
+        this.movement = Movement.valueOf(p.getProperty("movement", "linear").trim().toUpperCase());
+        this.speed = getDouble(p, "speed", 100);
+        this.sprites = Math.max(1, getInt(p, "sprites", 8));
+        this.layers = Math.max(1, getInt(p, "layers", 10));
+        this.spriteSize = getInt(p, "spriteSize", 32);
+        this.spawnRate = getDouble(p, "spawnRate", 0);
+        this.despawnRate = getDouble(p, "despawnRate", 0);
+        this.renderWidth = getInt(p, "render.width", 1366);
+        this.renderHeight = getInt(p, "render.height", 768);
+        this.renderThreads = getInt(p, "render.threads", 1);
+        this.frameBudget = getDouble(p, "render.frameBudget", 0);
+        this.cameraPath = parsePath(p.getProperty("camera.path", "0,0"));
+        this.cameraSpeed = getDouble(p, "camera.speed", 200);
+        this.cameraWidth = getDouble(p, "camera.width", renderWidth);
+        this.cameraHeight = getDouble(p, "camera.height", renderHeight);
+        this.tickP99Limit = getDouble(p, "limit.tickP99Millis", 0);
+        this.frameP99Limit = getDouble(p, "limit.frameP99Millis", 0);
+        this.allocationLimit = getDouble(p, "limit.allocatedMBPerSecond", 0);
+        this.gcPauseLimit = getDouble(p, "limit.gcPauseMaxMillis", 0);
+
+        if (duration <= warmup) throw new IllegalArgumentException("duration must be longer than warmup");
+        if (tickRate <= 0) throw new IllegalArgumentException("tickRate must be positive");
+    }
+
+    /**
+     * Reads a scenario from a properties file. The recognised keys, with their
+     * defaults in brackets, are:
+     * <ul>
+     * <li><code>name</code> [the file name] - The name reported in the summary.</li>
+     * <li><code>duration</code> [30] and <code>warmup</code> [duration/5, at
+     * most 5] - The length of the run and of the unmeasured period at its
+     * start, in seconds.</li>
+     * <li><code>tickRate</code> [60], <code>fixedTimeStep</code> [true] and
+     * <code>seed</code> [42] - Together these make the simulation repeatable
+     * from run to run.</li>
+     * <li><code>world.width</code>, <code>world.height</code> [4000] - The area
+     * entities are placed in.</li>
+     * <li><code>entities</code> [1000], <code>movement</code> [linear] (one of
+     * static, linear, orbit or wander) and <code>speed</code> [100] - The
+     * initial population and how it moves, in world units per second.</li>
+     * <li><code>sprites</code> [8], <code>layers</code> [10] and
+     * <code>spriteSize</code> [32] - The number of distinct images, the number
+     * of Z-heights and the size of each entity.</li>
+     * <li><code>spawnRate</code>, <code>despawnRate</code> [0] - Entities added
+     * and removed per second.</li>
+     * <li><code>camera.path</code> [0,0] - Semicolon-separated x,y points the
+     * camera moves between at <code>camera.speed</code> [200].</li>
+     * <li><code>camera.width</code>, <code>camera.height</code> [the render
+     * size] - The size of the camera's view in world units.</li>
+     * <li><code>render.width</code> [1366], <code>render.height</code> [768],
+     * <code>render.threads</code> [1] and <code>render.frameBudget</code> [0] -
+     * See {@link gj.graphics.Camera#setRenderThreads(int)} and
+     * {@link gj.graphics.Camera#setFrameTimeBudget(double)}.</li>
+     * <li><code>limit.tickP99Millis</code>, <code>limit.frameP99Millis</code>,
+     * <code>limit.allocatedMBPerSecond</code> and
+     * <code>limit.gcPauseMaxMillis</code> [none] - Thresholds that fail the run
+     * when exceeded.</li>
+     * </ul>
+     *
+     * @param file The properties file to read.
+     * @return The scenario described by the file.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If the file contains an invalid value.
+     */
+    public static Scenario load(Path file) throws IOException, IllegalArgumentException {
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        }
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return new Scenario(dot > 0 ? fileName.substring(0, dot) : fileName, p);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static double getDouble(Properties p, String key, double defaultValue) {
+        String value = p.getProperty(key);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    private static int getInt(Properties p, String key, int defaultValue) {
+        return (int)getDouble(p, key, defaultValue);
+    }
+
+    private static List<Point2D> parsePath(String path) {
+        List<Point2D> points = new ArrayList<>();
+        for (String point : path.split(";")) {
+            if (point.trim().isEmpty()) continue;
+            String[] coords = point.split(",");
+            if (coords.length != 2) throw new IllegalArgumentException("Invalid camera path point: " + point);
+            points.add(new Point2D.Double(Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim())));
+        }
+        if (points.isEmpty()) throw new IllegalArgumentException("The camera path must contain at least one point");
+        return Collections.unmodifiableList(points);
+    }
+}
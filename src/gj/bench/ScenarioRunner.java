@@ -0,0 +1,492 @@
+package gj.bench;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import gj.GameWorld;
+import gj.entities.Entity;
+import gj.graphics.Camera;
+import gj.graphics.OffscreenTarget;
+import gj.util.Transform;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Runs benchmark scenarios against a complete game world without a display.
+ * Each scenario builds a world as described by its {@link Scenario}, runs it
+ * for a fixed amount of real time while a camera renders it to an
+ * {@link OffscreenTarget}, and reports:
+ * <ul>
+ * <li>The distribution of tick times, covering the whole of each main loop
+ * iteration, and of the part of each tick spent capturing the render
+ * snapshot.</li>
+ * <li>The distribution of frame times, measured on the render loop.</li>
+ * <li>The rate at which memory is allocated, overall and per tick and frame.</li>
+ * <li>The number and duration of garbage collections, and the size of the
+ * live heap after the first and last of them, which shows whether a long
+ * run is leaking.</li>
+ * </ul>
+ * Nothing is measured during each scenario's warm-up period. A summary of
+ * every scenario is printed, and can also be written as JSON for comparison
+ * between runs. If any scenario exceeds one of its limits, the runner exits
+ * with status 1.
+ * <p>
+ * Usage: <code>ScenarioRunner [-o summary.json] scenario.properties...</code>
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ScenarioRunner {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999", "max"};
+
+    private final Scenario scenario;
+    private final Random rand;
+    private final Image[] sprites;
+
+    /**
+     * Every entity currently in the world, so that random ones can be
+     * despawned. This is only accessed on the main loop thread.
+     */
+    private final List<Entity> live;
+
+    private final SampleRecorder tickTimes, snapshotTimes, frameTimes, gcDurations;
+    private final AtomicLong entitiesDrawn;
+
+    /**
+     * Whether the warm-up period is over and samples are being recorded.
+     */
+    private volatile boolean measuring;
+
+    /**
+     * The IDs of the main loop and render loop threads, which are found the
+     * first time each calls back into the runner.
+     */
+    private volatile long tickThread = -1, renderThread = -1;
+
+    private volatile int entityCount;
+
+    // The fractional entities carried over to the next tick by spawning and despawning.
+    private double spawnDebt, despawnDebt;
+
+    /**
+     * The index of the camera path point that the camera is moving towards.
+     */
+    private int pathTarget;
+
+    // Heap usage after the first and most recent collections during measurement, in bytes.
+    private volatile long firstLiveHeap = -1, lastLiveHeap = -1;
+
+    private ScenarioRunner(Scenario scenario) {
+        this.scenario = scenario;
+        this.rand = new Random(scenario.seed);
+        this.sprites = new Image[scenario.sprites];
+        for (int i = 0; i < sprites.length; i++) {
+            sprites[i] = createSprite(scenario.spriteSize, (float)i / sprites.length);
+        }
+        this.live = new ArrayList<>();
+        int expectedTicks = (int)(scenario.duration * scenario.tickRate);
+        this.tickTimes = new SampleRecorder(expectedTicks);
+        this.snapshotTimes = new SampleRecorder(expectedTicks);
+        this.frameTimes = new SampleRecorder(expectedTicks);
+        this.gcDurations = new SampleRecorder(64);
+        this.entitiesDrawn = new AtomicLong();
+        this.measuring = false;
+        this.pathTarget = 0;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Nothing is displayed, so make sure AWT never tries to find a screen.
+        System.setProperty("java.awt.headless", "true");
+
+        String output = null;
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                output = args[++i];
+            } else {
+                scenarios.add(Scenario.load(Paths.get(args[i])));
+            }
+        }
+        if (scenarios.isEmpty()) {
+            System.err.println("Usage: ScenarioRunner [-o summary.json] scenario.properties...");
+            System.exit(2);
+        }
+
+        List<Report> reports = new ArrayList<>();
+        boolean passed = true;
+        for (Scenario s : scenarios) {
+            System.out.println(String.format("Running %s for %.0fs (%.0fs warm-up)...", s.name, s.duration, s.warmup));
+            Report report = new ScenarioRunner(s).run();
+            report.print(System.out);
+            reports.add(report);
+            passed &= report.failures.isEmpty();
+        }
+
+        if (output != null) {
+            StringBuilder json = new StringBuilder("{\"scenarios\": [");
+            for (int i = 0; i < reports.size(); i++) {
+                if (i > 0) json.append(", ");
+                reports.get(i).appendJson(json);
+            }
+            json.append("], \"passed\": ").append(passed).append("}\n");
+            Files.write(Paths.get(output), json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs the scenario to completion. This blocks for the scenario's full
+     * duration.
+     */
+    private Report run() throws InterruptedException {
+        OffscreenTarget target = new OffscreenTarget(scenario.renderWidth, scenario.renderHeight);
+        GameWorld world = new GameWorld(scenario.tickRate, target);
+        world.setFixedTimeStep(scenario.fixedTimeStep);
+
+        Camera camera = world.getCamera();
+        Point2D start = scenario.cameraPath.get(0);
+        camera.getTransform().setRect(start.getX(), start.getY(), scenario.cameraWidth, scenario.cameraHeight);
+        camera.setRenderThreads(scenario.renderThreads);
+        camera.setFrameTimeBudget(scenario.frameBudget);
+
+        for (int i = 0; i < scenario.entities; i++) spawn(world);
+        entityCount = live.size();
+
+        // Spawning and despawning run as a scheduled event so that their cost counts towards tick times.
+        world.getTimers().scheduleRepeating(1, 1, () -> churn(world));
+        world.addTickListener((w, tick, dt) -> tickCompleted(w, camera, dt));
+        camera.addFrameListener((c, frameNanos, drawn) -> frameRendered(frameNanos, drawn));
+        List<Runnable> gcCleanup = listenForCollections();
+
+        world.start();
+        Thread.sleep((long)(scenario.warmup * 1000));
+
+        // Start measuring.
+        Measurement before = new Measurement();
+        measuring = true;
+        Thread.sleep((long)((scenario.duration - scenario.warmup) * 1000));
+        measuring = false;
+        Measurement after = new Measurement();
+
+        world.stop(); // This waits for the world's threads to finish and shuts down the render threads.
+        gcCleanup.forEach(Runnable::run);
+        return new Report(before, after);
+    }
+
+    private void tickCompleted(GameWorld world, Camera camera, double dt) {
+        if (tickThread < 0) tickThread = Thread.currentThread().getId();
+        if (measuring) {
+            // These are the timings of the previous tick, which has been fully completed.
+            tickTimes.record(world.getLastTickNanos());
+            snapshotTimes.record(world.getLastSnapshotNanos());
+        }
+        moveCamera(camera.getTransform(), dt);
+    }
+
+    private void frameRendered(long frameNanos, int drawn) {
+        if (renderThread < 0) renderThread = Thread.currentThread().getId();
+        if (measuring) {
+            frameTimes.record(frameNanos);
+            entitiesDrawn.addAndGet(drawn);
+        }
+    }
+
+    /**
+     * Spawns and despawns entities according to the scenario's rates. This is
+     * called once per tick, and assumes each tick simulates 1/tickRate seconds.
+     */
+    private void churn(GameWorld world) {
+        spawnDebt += scenario.spawnRate / scenario.tickRate;
+        despawnDebt += scenario.despawnRate / scenario.tickRate;
+        for (; spawnDebt >= 1; spawnDebt--) spawn(world);
+        for (; despawnDebt >= 1 && !live.isEmpty(); despawnDebt--) {
+            // Swap the removed entity with the last one so that removing it from the list is cheap.
+            int i = rand.nextInt(live.size());
+            Entity ent = live.get(i);
+            live.set(i, live.get(live.size() - 1));
+            live.remove(live.size() - 1);
+            world.removeEntity(ent);
+        }
+        entityCount = live.size();
+    }
+
+    private void spawn(GameWorld world) {
+        double x = rand.nextDouble() * scenario.worldWidth, y = rand.nextDouble() * scenario.worldHeight;
+        Image img = sprites[rand.nextInt(sprites.length)];
+        int z = rand.nextInt(scenario.layers);
+        Entity ent = (scenario.movement == Scenario.Movement.STATIC)
+                ? new Entity(x, y, img, z)
+                : new MovingEntity(x, y, img, z, rand.nextDouble() * 2 * Math.PI);
+        live.add(ent);
+        world.addEntity(ent);
+    }
+
+    /**
+     * Moves the camera along its path at a constant speed.
+     */
+    private void moveCamera(Transform view, double dt) {
+        if (scenario.cameraPath.size() < 2) return;
+        double travel = scenario.cameraSpeed * dt;
+        while (travel > 0) {
+            Point2D p = scenario.cameraPath.get(pathTarget);
+            double dx = p.getX() - view.getX(), dy = p.getY() - view.getY();
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist > travel) {
+                view.translate(dx / dist * travel, dy / dist * travel);
+                return;
+            }
+            view.setPosition(p.getX(), p.getY());
+            travel -= dist;
+            pathTarget = (pathTarget + 1) % scenario.cameraPath.size();
+        }
+    }
+
+    /**
+     * Starts recording the duration of each garbage collection and the size
+     * of the heap after it. This relies on the collection notifications
+     * provided by HotSpot, and records nothing on JVMs that don't send them.
+     *
+     * @return Actions that stop recording.
+     */
+    private List<Runnable> listenForCollections() {
+        List<Runnable> cleanup = new ArrayList<>();
+        NotificationListener listener = (Notification n, Object handback) -> {
+            if (!measuring || !n.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)n.getUserData());
+            gcDurations.record(info.getGcInfo().getDuration() * 1000000L);
+            long used = 0;
+            for (MemoryUsage usage : info.getGcInfo().getMemoryUsageAfterGc().values()) used += usage.getUsed();
+            if (firstLiveHeap < 0) firstLiveHeap = used;
+            lastLiveHeap = used;
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter)gc;
+                emitter.addNotificationListener(listener, null, null);
+                cleanup.add(() -> {
+                    try {
+                        emitter.removeNotificationListener(listener);
+                    } catch (javax.management.ListenerNotFoundException ex) {
+                        // Already removed.
+                    }
+                });
+            }
+        }
+        return cleanup;
+    }
+
+    private static Image createSprite(int size, float hue) {
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.getHSBColor(hue, 0.7f, 0.9f));
+        g.fillOval(0, 0, size, size);
+        g.setColor(Color.BLACK);
+        g.drawOval(0, 0, size - 1, size - 1);
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * An entity that moves according to the scenario's movement pattern.
+     */
+    private class MovingEntity extends Entity {
+        private double heading;
+
+        MovingEntity(double initX, double initY, Image img, int zHeight, double heading) {
+            super(initX, initY, img, zHeight);
+            this.heading = heading;
+        }
+
+        @Override
+        public void update(double dt) {
+            Transform t = getTransform();
+            switch (scenario.movement) {
+                case LINEAR: {
+                    // Wrap around to the opposite edge of the world.
+                    double x = t.getX() + Math.cos(heading) * scenario.speed * dt;
+                    double y = t.getY() + Math.sin(heading) * scenario.speed * dt;
+                    t.setPosition(wrap(x, scenario.worldWidth), wrap(y, scenario.worldHeight));
+                    break;
+                }
+                case ORBIT: {
+                    double cx = scenario.worldWidth / 2, cy = scenario.worldHeight / 2;
+                    double rx = t.getX() - cx, ry = t.getY() - cy;
+                    double radius = Math.max(1, Math.sqrt(rx * rx + ry * ry));
+                    double angle = Math.atan2(ry, rx) + scenario.speed * dt / radius;
+                    t.setPosition(cx + Math.cos(angle) * radius, cy + Math.sin(angle) * radius);
+                    break;
+                }
+                case WANDER: {
+                    heading += (rand.nextDouble() - 0.5) * 4 * dt;
+                    double x = t.getX() + Math.cos(heading) * scenario.speed * dt;
+                    double y = t.getY() + Math.sin(heading) * scenario.speed * dt;
+                    // Turn back towards the world when leaving it.
+                    if (x < 0 || x > scenario.worldWidth || y < 0 || y > scenario.worldHeight) {
+                        heading += Math.PI;
+                    } else {
+                        t.setPosition(x, y);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        private double wrap(double value, double size) {
+            return (value < 0) ? value + size : (value >= size) ? value - size : value;
+        }
+    }
+
+    /**
+     * The counters sampled at the start and end of the measured period.
+     */
+    private class Measurement {
+        final long time = System.nanoTime();
+        final long gcCount, gcMillis;
+        final long allocatedTotal, allocatedTick, allocatedRender;
+
+        Measurement() {
+            long count = 0, millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            this.gcCount = count;
+            this.gcMillis = millis;
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean)threads).isThreadAllocatedMemorySupported()) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean)threads;
+                long total = 0;
+                for (long bytes : hotspot.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                    if (bytes > 0) total += bytes;
+                }
+                this.allocatedTotal = total;
+                this.allocatedTick = (tickThread >= 0) ? hotspot.getThreadAllocatedBytes(tickThread) : -1;
+                this.allocatedRender = (renderThread >= 0) ? hotspot.getThreadAllocatedBytes(renderThread) : -1;
+            } else {
+                this.allocatedTotal = this.allocatedTick = this.allocatedRender = -1;
+            }
+        }
+    }
+
+    /**
+     * The results of running a scenario.
+     */
+    private class Report {
+        final double seconds;
+        final int ticks, frames;
+        final double[] tickPercentiles, snapshotPercentiles, framePercentiles, gcPercentiles;
+        final double tickMean, snapshotMean, frameMean, meanEntitiesDrawn;
+        final double allocatedMBPerSecond, bytesPerTick, bytesPerFrame;
+        final long gcCount, gcMillis;
+        final List<String> failures;
+
+        Report(Measurement before, Measurement after) {
+            this.seconds = (after.time - before.time) / 1e9;
+            this.ticks = tickTimes.size();
+            this.frames = frameTimes.size();
+            this.tickPercentiles = tickTimes.percentilesMillis(PERCENTILES);
+            this.snapshotPercentiles = snapshotTimes.percentilesMillis(PERCENTILES);
+            this.framePercentiles = frameTimes.percentilesMillis(PERCENTILES);
+            this.gcPercentiles = gcDurations.percentilesMillis(PERCENTILES);
+            this.tickMean = tickTimes.meanMillis();
+            this.snapshotMean = snapshotTimes.meanMillis();
+            this.frameMean = frameTimes.meanMillis();
+            this.meanEntitiesDrawn = (frames > 0) ? entitiesDrawn.get() / (double)frames : 0;
+            this.allocatedMBPerSecond = (before.allocatedTotal >= 0)
+                    ? (after.allocatedTotal - before.allocatedTotal) / 1048576.0 / seconds : -1;
+            this.bytesPerTick = (before.allocatedTick >= 0 && ticks > 0)
+                    ? (after.allocatedTick - before.allocatedTick) / (double)ticks : -1;
+            this.bytesPerFrame = (before.allocatedRender >= 0 && frames > 0)
+                    ? (after.allocatedRender - before.allocatedRender) / (double)frames : -1;
+            this.gcCount = after.gcCount - before.gcCount;
+            this.gcMillis = after.gcMillis - before.gcMillis;
+
+            this.failures = new ArrayList<>();
+            checkLimit("tick p99", tickPercentiles[2], scenario.tickP99Limit, "ms");
+            checkLimit("frame p99", framePercentiles[2], scenario.frameP99Limit, "ms");
+            checkLimit("allocation rate", allocatedMBPerSecond, scenario.allocationLimit, "MB/s");
+            checkLimit("longest GC", gcPercentiles[4], scenario.gcPauseLimit, "ms");
+        }
+
+        private void checkLimit(String what, double value, double limit, String unit) {
+            if (limit > 0 && value > limit) {
+                failures.add(String.format("%s of %.2f%s exceeds limit of %.2f%s", what, value, unit, limit, unit));
+            }
+        }
+
+        void print(PrintStream out) {
+            out.println(String.format("  %d entities at end, %.0f drawn per frame on average", entityCount, meanEntitiesDrawn));
+            printTimes(out, "Ticks", ticks, tickMean, tickPercentiles);
+            printTimes(out, "Snapshots", ticks, snapshotMean, snapshotPercentiles);
+            printTimes(out, "Frames", frames, frameMean, framePercentiles);
+            out.println(String.format("  Allocation: %.1f MB/s overall, %.0f bytes/tick, %.0f bytes/frame",
+                    allocatedMBPerSecond, bytesPerTick, bytesPerFrame));
+            String liveHeap = (firstLiveHeap >= 0)
+                    ? String.format(", live heap %.1fMB -> %.1fMB", firstLiveHeap / 1048576.0, lastLiveHeap / 1048576.0) : "";
+            out.println(String.format("  GC: %d collections, %dms total, longest %.1fms%s",
+                    gcCount, gcMillis, gcPercentiles[4], liveHeap));
+            for (String failure : failures) out.println("  FAILED: " + failure);
+        }
+
+        private void printTimes(PrintStream out, String what, int count, double mean, double[] percentiles) {
+            StringBuilder line = new StringBuilder(String.format("  %s: %d (%.1f/s), mean %.3fms", what, count, count / seconds, mean));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                line.append(String.format(", %s %.3fms", PERCENTILE_NAMES[i], percentiles[i]));
+            }
+            out.println(line);
+        }
+
+        void appendJson(StringBuilder json) {
+            json.append("{\"name\": \"").append(scenario.name.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            json.append(String.format(Locale.ROOT, ", \"measuredSeconds\": %.3f, \"entities\": %d, \"meanEntitiesDrawn\": %.1f",
+                    seconds, entityCount, meanEntitiesDrawn));
+            appendTimes(json, "ticks", ticks, tickMean, tickPercentiles);
+            appendTimes(json, "snapshots", ticks, snapshotMean, snapshotPercentiles);
+            appendTimes(json, "frames", frames, frameMean, framePercentiles);
+            json.append(String.format(Locale.ROOT, ", \"allocation\": {\"mbPerSecond\": %.3f, \"bytesPerTick\": %.1f, \"bytesPerFrame\": %.1f}",
+                    allocatedMBPerSecond, bytesPerTick, bytesPerFrame));
+            json.append(String.format(Locale.ROOT, ", \"gc\": {\"count\": %d, \"totalMillis\": %d, \"p99Millis\": %.3f, \"maxMillis\": %.3f, \"liveHeapStartBytes\": %d, \"liveHeapEndBytes\": %d}",
+                    gcCount, gcMillis, gcPercentiles[2], gcPercentiles[4], firstLiveHeap, lastLiveHeap));
+            json.append(", \"failures\": [");
+            for (int i = 0; i < failures.size(); i++) {
+                if (i > 0) json.append(", ");
+                json.append('"').append(failures.get(i)).append('"');
+            }
+            json.append("]}");
+        }
+
+        private void appendTimes(StringBuilder json, String what, int count, double mean, double[] percentiles) {
+            json.append(String.format(Locale.ROOT, ", \"%s\": {\"count\": %d, \"perSecond\": %.2f, \"meanMillis\": %.4f", what, count, count / seconds, mean));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                json.append(String.format(Locale.ROOT, ", \"%sMillis\": %.4f", PERCENTILE_NAMES[i], percentiles[i]));
+            }
+            json.append('}');
+        }
+    }
+}
@@ -3,6 +3,7 @@ package gj.entities;
 
 import gj.util.Transform;
 import java.awt.Image;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An instance of this class represents a single logical entity in the game
@@ -13,6 +14,18 @@ import java.awt.Image;
  * @version 07-Jun-2016
  */
 public class Entity implements Comparable<Entity> {
+    /**
+     * The ID to give the next entity created.
+     */
+    private static final AtomicInteger nextId = new AtomicInteger();
+    
+    /**
+     * A number that identifies this entity for as long as it exists. IDs are
+     * never reused (short of creating more than 2^32 entities), so they can be
+     * used to match up copies of an entity's state taken at different times.
+     */
+    private final int id;
+    
     /**
      * The transform representing the position and size of this entity. The size
      * of the transform is always kept equal to the size of the image used to
@@ -33,7 +46,14 @@ public class Entity implements Comparable<Entity> {
      */
     private final int zHeight;
     
+    /**
+     * The entity that this entity is attached to, or null if it isn't attached
+     * to anything.
+     */
+    private Entity parent;
+    
     public Entity(double initX, double initY, Image img, int zHeight) {
+        this.id = nextId.getAndIncrement();
         this.transform = new Transform(initX, initY, img.getWidth(null), img.getHeight(null));
         this.image = img;
         this.zHeight = zHeight;
@@ -43,6 +63,10 @@ public class Entity implements Comparable<Entity> {
         this(initX, initY, img, 0);
     }
     
+    public final int getId() {
+        return id;
+    }
+    
     public final int getZHeight() {
         return zHeight;
     }
@@ -88,6 +112,29 @@ public class Entity implements Comparable<Entity> {
         return transform;
     }
     
+    /**
+     * Attaches this entity to another, so that its position becomes relative
+     * to the position of its parent. An attached entity moves with its parent
+     * without needing to copy the parent's position in its own update method.
+     * <p>
+     * The current X and Y coordinates of this entity are kept as its offset
+     * from the parent. Both entities must still be added to the game world
+     * separately in order to be updated and drawn.
+     * 
+     * @param parent The entity to attach this one to, or null to detach it and
+     * position it in world coordinates again.
+     * @throws IllegalArgumentException If attaching this entity would create a
+     * cycle.
+     */
+    public void setParent(Entity parent) throws IllegalArgumentException {
+        transform.setParent(parent != null ? parent.getTransform() : null);
+        this.parent = parent;
+    }
+    
+    public Entity getParent() {
+        return parent;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s: %s", this.getClass().getName(), this.transform.toString());
@@ -1,5 +1,6 @@
 package gj.entities;
 
+import gj.util.Transform;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -55,10 +56,20 @@ public class EntityList implements Iterable<Entity> {
         return ents;
     }
     
+    /**
+     * Finds every entity whose world bounds intersect the given region. If the
+     * region is a Transform, its world bounds are used, so a region attached
+     * to a parent transform is compared in the right coordinate space.
+     * 
+     * @param region The region to search, in world coordinates.
+     * @return The entities intersecting the region, in ascending order of
+     * height.
+     */
     public Collection<Entity> getIntersectingEntities(Rectangle2D region) {
+        Rectangle2D bounds = (region instanceof Transform) ? ((Transform)region).getWorldBounds() : region;
         Collection<Entity> buf = new ArrayList<>();
         for (Entity ent : ents) {
-            if (region.intersects(ent.getTransform()))
+            if (bounds.intersects(ent.getTransform().getWorldBounds()))
                 buf.add(ent);
         }
         return buf;
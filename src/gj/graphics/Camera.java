@@ -1,12 +1,13 @@
 package gj.graphics;
 
-import java.awt.DisplayMode;
 import java.awt.Graphics;
-import java.awt.Image;
 import gj.GameWorld;
-import gj.entities.Entity;
 import gj.util.Transform;
 import java.awt.Color;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class represents a camera that watches a portion of a given game world
@@ -26,11 +27,24 @@ import java.awt.Color;
  * <p>
  * A camera can also display debug visuals on top of the rendered scene that aim
  * to assist with development. These visuals appear in red.
+ * <p>
+ * Rendering happens on a different thread from the simulation. At the end of
+ * each tick, the simulation thread publishes a snapshot of the world using
+ * {@link #publishSnapshot()}, and the render thread draws each frame by
+ * interpolating between the two most recent snapshots. The world is therefore
+ * displayed about one tick behind the simulation, but motion stays smooth
+ * regardless of whether the display refreshes faster or slower than the
+ * world ticks.
  * 
  * @author Joseph
  * @version 04-Jun-2016
  */
 public class Camera {
+    /**
+     * The font used to draw debugging information.
+     */
+    private static final java.awt.Font DEBUG_FONT = new java.awt.Font("System", java.awt.Font.BOLD, 12);
+    
     /**
      * The transform of this camera, which represents the position and size of
      * the viewport. With each rendering call, the camera will iterate over
@@ -47,9 +61,10 @@ public class Camera {
     private final GameWorld logicalWorld;
     
     /**
-     * The window to which the camera will draw the world.
+     * The window (or other render target) to which the camera will draw the
+     * world.
      */
-    private final RenderWindow physicalWindow;
+    private final RenderTarget physicalWindow;
     
     /**
      * If set to true, the camera will render additional information to assist
@@ -58,41 +73,110 @@ public class Camera {
      */
     private boolean debugging;
     
+    /**
+     * Adjusts the resolution that the camera renders at to keep the time taken
+     * to render each frame within budget, or null if the camera always renders
+     * at the full display resolution. Only accessed by the render thread.
+     */
+    private ResolutionScaler resolutionScaler;
+    
+    /**
+     * The backend used to execute each frame's draw commands. Only accessed by
+     * the render thread.
+     */
+    private RenderBackend backend;
+    
+    /**
+     * Changes to the frame time budget and number of render threads that have
+     * been requested but not yet applied. These are applied by the render
+     * thread before it draws its next frame, so that the backend and render
+     * scale are never changed in the middle of a frame. A budget of null and a
+     * thread count of 0 mean that no change has been requested.
+     */
+    private final AtomicReference<Double> pendingBudget;
+    private final AtomicInteger pendingThreads;
+    
+    /**
+     * The draw commands for the current frame, which are rebuilt every frame
+     * in place so that assembling a frame doesn't allocate.
+     */
+    private final DrawCommandBuffer drawCommands;
+    
+    /**
+     * The most recently published snapshot of the world, which is handed from
+     * the simulation thread to the render thread.
+     */
+    private final AtomicReference<RenderSnapshot> latestSnapshot;
+    
+    /**
+     * The two snapshots being interpolated between. These are only accessed
+     * by the render thread.
+     */
+    private RenderSnapshot previousSnapshot, currentSnapshot;
+    
+    /**
+     * Finds entities in the previous snapshot, so that they can be matched
+     * with their state in the current one.
+     */
+    private final SnapshotIndex previousIndex;
+    
+    /**
+     * Scratch space for an interpolated entity's position and size.
+     */
+    private final double[] lerped = new double[4];
+    
+    /**
+     * The listeners notified each time a frame is presented.
+     */
+    private final List<FrameListener> frameListeners;
+    
     /**
      * Constructor for a new Camera that views a given portion of the provided
-     * GameWorld and renders it to the given RenderWindow.
+     * GameWorld and renders it to the given RenderTarget.
      * 
      * @param world The GameWorld to be rendered.
-     * @param window The RenderWindow to render this camera's view in.
+     * @param window The RenderTarget (usually a RenderWindow) to render this
+     * camera's view in.
      * @param initX The initial X coordinate of this camera's view.
      * @param initY The initial Y coordinate of this camera's view.
      * @param initW The initial width of this camera's view.
      * @param initH The initial height of this camera's view.
      */
-    public Camera(GameWorld world, RenderWindow window, int initX, int initY, int initW, int initH) {
+    public Camera(GameWorld world, RenderTarget window, int initX, int initY, int initW, int initH) {
         this.logicalWorld = world;
         this.physicalWindow = window;
         this.view = new Transform(initX, initY, initW, initH);
         this.debugging = false;
+        this.resolutionScaler = null;
+        this.backend = new Java2DBackend();
+        this.drawCommands = new DrawCommandBuffer();
+        this.latestSnapshot = new AtomicReference<>();
+        this.previousIndex = new SnapshotIndex();
+        this.pendingBudget = new AtomicReference<>();
+        this.pendingThreads = new AtomicInteger();
+        this.frameListeners = new CopyOnWriteArrayList<>();
     }
     
     /**
      * Constructor for a new Camera that renders the given GameWorld to the
-     * given RenderWindow on a 1:1 scale. In other words, the camera's view is
+     * given RenderTarget on a 1:1 scale. In other words, the camera's view is
      * initialised to match the physical width and height of the window - the
      * logical and physical coordinate spaces are assumed to be the same.
      * 
      * @param world The GameWorld to be rendered.
-     * @param window The RenderWindow to render this camera's view in.
+     * @param window The RenderTarget (usually a RenderWindow) to render this
+     * camera's view in.
      */
-    public Camera(GameWorld world, RenderWindow window) {
+    public Camera(GameWorld world, RenderTarget window) {
         // Initialise the camera to match the physical resolution.
         this(world, window, 0, 0, window.getCurrentDisplayMode().getWidth(), window.getCurrentDisplayMode().getHeight());
     }
     
     /**
      * Acquires the transform representing this camera's view. Clients can
-     * manipulate the transform to move and scale the camera.
+     * manipulate the transform to move and scale the camera, or attach it to
+     * an entity's transform using {@link Transform#setParent(Transform)} to
+     * make the camera follow that entity.
      * 
      * @return The Transform defining the Camera.
      */
@@ -110,55 +194,221 @@ public class Camera {
         this.debugging = debugging;
     }
     
+    /**
+     * Enables or disables adaptive resolution. When enabled, the camera lowers
+     * the resolution it renders at whenever frames take longer than the given
+     * budget to render, and raises it again once there is enough headroom.
+     * The rendered frame is upscaled to fill the window.
+     * <p>
+     * This may be called from any thread at any time. The change takes effect
+     * from the next frame.
+     * 
+     * @param budgetMillis The longest that rendering a frame should take, in
+     * milliseconds, or 0 to always render at the full display resolution.
+     */
+    public void setFrameTimeBudget(double budgetMillis) {
+        pendingBudget.set(budgetMillis);
+    }
+    
+    /**
+     * Sets the number of threads used to draw entities. With more than one
+     * thread, the rendered image is split into horizontal bands that are drawn
+     * in parallel, which makes rendering dense scenes faster on machines with
+     * many cores.
+     * <p>
+     * This may be called from any thread at any time. The change takes effect
+     * from the next frame, when the threads previously used are shut down.
+     * 
+     * @param threads The number of threads to draw with, where 1 draws every
+     * entity on the thread that renders the frame.
+     */
+    public void setRenderThreads(int threads) {
+        pendingThreads.set(Math.max(1, threads));
+    }
+    
+    /**
+     * Applies any changes to the render settings requested since the previous
+     * frame. This is called by the render thread before drawing each frame.
+     */
+    private void applyPendingSettings() {
+        Double budget = pendingBudget.getAndSet(null);
+        if (budget != null) {
+            this.resolutionScaler = (budget > 0) ? new ResolutionScaler(budget) : null;
+            physicalWindow.setRenderScale(1.0);
+        }
+        int threads = pendingThreads.getAndSet(0);
+        if (threads > 0) {
+            backend.shutdown();
+            this.backend = (threads > 1) ? new TiledRenderer(threads) : new Java2DBackend();
+        }
+    }
+    
+    /**
+     * Releases the threads used to render, if any. This is called once the
+     * world has stopped, and the camera mustn't render again afterwards.
+     */
+    public void shutdown() {
+        pendingThreads.set(0);
+        backend.shutdown();
+    }
+    
+    /**
+     * Registers a listener to be notified each time this camera presents a
+     * frame. Listeners are called on the render thread.
+     * 
+     * @param listener The FrameListener to add.
+     */
+    public void addFrameListener(FrameListener listener) {
+        frameListeners.add(listener);
+    }
+    
+    public void removeFrameListener(FrameListener listener) {
+        frameListeners.remove(listener);
+    }
+    
+    /**
+     * Captures a snapshot of the world as seen by this camera and makes it
+     * available to the render thread. This should be called on the thread
+     * that runs the world's main loop, between ticks.
+     */
+    public void publishSnapshot() {
+        latestSnapshot.set(RenderSnapshot.capture(logicalWorld.getAllEntities(), view.getWorldBounds()));
+    }
+    
     /**
      * Renders this camera's associated GameWorld to its associated
-     * RenderWindow. Only entities that fall within the view of this camera are
-     * drawn.
+     * RenderTarget, interpolating between the two most recently published
+     * snapshots of the world. Only entities that fall within the view of this
+     * camera are drawn. Nothing is drawn until the first snapshot has been
+     * published.
      * 
-     * @param dT The amount of time that has passed since the previous update.
+     * @param dT The amount of time that has passed since the previous frame.
      */
     public void render(double dT) {
+        long startTime = System.nanoTime();
+        applyPendingSettings();
+        RenderSnapshot latest = latestSnapshot.get();
+        if (latest == null) return;
+        if (latest != currentSnapshot) {
+            previousSnapshot = (currentSnapshot != null) ? currentSnapshot : latest;
+            currentSnapshot = latest;
+            previousIndex.build(previousSnapshot);
+        }
+        
+        // Work out how far between the two snapshots this frame falls, assuming the next one arrives one tick after the current one.
+        double alpha = 1.0;
+        long interval = currentSnapshot.time - previousSnapshot.time;
+        if (interval > 0) {
+            alpha = Math.min(1.0, (startTime - currentSnapshot.time) / (double)interval);
+        }
+        RenderSnapshot prev = previousSnapshot, cur = currentSnapshot;
+        double viewX = lerp(prev.viewX, cur.viewX, alpha), viewY = lerp(prev.viewY, cur.viewY, alpha);
+        double viewW = lerp(prev.viewW, cur.viewW, alpha), viewH = lerp(prev.viewH, cur.viewH, alpha);
+        
         Graphics g = physicalWindow.getOffscreenGraphics();
-        DisplayMode dispMode = physicalWindow.getCurrentDisplayMode();
+        // The size of the image being rendered to, which is smaller than the display if the resolution has been scaled down.
+        int renderWidth = physicalWindow.getRenderWidth();
+        int renderHeight = physicalWindow.getRenderHeight();
+        double scaleX = renderWidth / viewW, scaleY = renderHeight / viewH;
         
         if (g != null) { // If the window is currently available for drawing...
             g.setColor(Color.red);
-            g.setFont(new java.awt.Font("System", java.awt.Font.BOLD, 12));
+            g.setFont(DEBUG_FONT);
             
-            java.util.Collection<Entity> intersectingEnts = logicalWorld.getIntersectingEntities(view);
-            for (Entity e : intersectingEnts) {
-                Image drawImg = e.getImage();
-                
-                // Scale the image according to the difference in size between the physical and logical viewports.
-                drawImg = drawImg.getScaledInstance(
-                        (int)(e.getTransform().getWidth() * (dispMode.getWidth() / this.view.getWidth())),
-                        (int)(e.getTransform().getHeight() * (dispMode.getHeight() / this.view.getHeight())),
-                        Image.SCALE_FAST);
-                
-                // Draw the image, offsetting it from the origin of the physical viewport if the logical viewport is at a different location.
-                int physicalX = (int)((e.getTransform().getX() - this.view.getX()) * (dispMode.getWidth() / this.view.getWidth()));
-                int physicalY = (int)((e.getTransform().getY() - this.view.getY()) * (dispMode.getHeight() / this.view.getHeight()));
-                g.drawImage(drawImg, physicalX, physicalY, null);
-                
-                // If debug mode is turned on, display the entity's string representation on top of it.
-                if (debugging) {
-                    g.drawString(e.toString(), physicalX, physicalY+10);
-                }
-            }
+            buildDrawCommands(alpha, viewX, viewY, viewW, viewH, scaleX, scaleY);
+            backend.execute(drawCommands, physicalWindow, renderWidth, renderHeight);
             
             // Display debugging information if debug mode is enabled.
             if (debugging) {
+                // Display each entity's string representation on top of it.
+                for (int i = 0; i < cur.count; i++) {
+                    interpolate(i, alpha);
+                    if (intersects(viewX, viewY, viewW, viewH)) {
+                        g.drawString(String.format("%s: [x=%.1f, y=%.1f]", cur.ents[i].getClass().getName(), lerped[0], lerped[1]),
+                                (int)((lerped[0] - viewX) * scaleX), (int)((lerped[1] - viewY) * scaleY) + 10);
+                    }
+                }
+                
                 // Draw an oval around the origin of the world ((0,0) in logical space).
-                g.drawOval((int)-view.getX() - 5, (int)-view.getY() - 5, 10, 10);
+                g.drawOval((int)-viewX - 5, (int)-viewY - 5, 10, 10);
                 
                 g.drawString("FPS: " + (1.0 / dT), 2, 10);
-                g.drawString("Total entities: " + logicalWorld.getAllEntities().size(), 2, 25);
-                g.drawString("Rendered entities: " + intersectingEnts.size(), 2, 40);
-                g.drawString("Camera position: (" + view.getX() + ", " + view.getY() + ")", 2, 55);
-                g.drawString("Camera size: [" + view.getWidth() + ", " + view.getHeight() + "]", 2, 70);
+                g.drawString("Total entities: " + cur.count, 2, 25);
+                g.drawString("Rendered entities: " + drawCommands.size(), 2, 40);
+                g.drawString("Camera position: (" + viewX + ", " + viewY + ")", 2, 55);
+                g.drawString("Camera size: [" + viewW + ", " + viewH + "]", 2, 70);
+                if (resolutionScaler != null) {
+                    g.drawString(String.format("Render scale: %.2f (%.2fms)", resolutionScaler.getScale(), resolutionScaler.getSmoothedMillis()), 2, 85);
+                }
             }
+            g.dispose();
+            
+            physicalWindow.present();
+            long frameNanos = System.nanoTime() - startTime;
             
-            physicalWindow.repaint();
+            // Adapt the resolution of the next frame to the time this one took.
+            if (resolutionScaler != null && resolutionScaler.recordFrame(frameNanos)) {
+                physicalWindow.setRenderScale(resolutionScaler.getScale());
+            }
+            for (FrameListener l : frameListeners) {
+                l.frameRendered(this, frameNanos, drawCommands.size());
+            }
         } // End of 'if (g != null)'
     }
+    
+    /**
+     * Fills the draw command buffer with a command for each entity in the
+     * current snapshot that falls within the given view, and sorts it into
+     * drawing order. Each entity is scaled according to the difference in size
+     * between the physical and logical viewports, and offset from the origin
+     * of the physical viewport if the logical viewport is at a different
+     * location.
+     */
+    private void buildDrawCommands(double alpha, double viewX, double viewY, double viewW, double viewH, double scaleX, double scaleY) {
+        RenderSnapshot cur = currentSnapshot;
+        drawCommands.clear();
+        for (int i = 0; i < cur.count; i++) {
+            interpolate(i, alpha);
+            if (!intersects(viewX, viewY, viewW, viewH)) continue;
+            drawCommands.add(cur.images[i],
+                    (int)((lerped[0] - viewX) * scaleX),
+                    (int)((lerped[1] - viewY) * scaleY),
+                    (int)(lerped[2] * scaleX),
+                    (int)(lerped[3] * scaleY),
+                    cur.z[i]);
+        }
+        drawCommands.sort();
+    }
+    
+    /**
+     * Interpolates the position and size of the entity at the given index in
+     * the current snapshot, storing the result in the lerped array. Entities
+     * that weren't in the previous snapshot are placed where they are in the
+     * current one.
+     */
+    private void interpolate(int i, double alpha) {
+        RenderSnapshot prev = previousSnapshot, cur = currentSnapshot;
+        int p = previousIndex.indexOf(cur.ids[i], i);
+        if (p < 0) {
+            p = i;
+            prev = cur;
+        }
+        lerped[0] = lerp(prev.x[p], cur.x[i], alpha);
+        lerped[1] = lerp(prev.y[p], cur.y[i], alpha);
+        lerped[2] = lerp(prev.w[p], cur.w[i], alpha);
+        lerped[3] = lerp(prev.h[p], cur.h[i], alpha);
+    }
+    
+    /**
+     * @return Whether the most recently interpolated entity intersects the
+     * given view.
+     */
+    private boolean intersects(double viewX, double viewY, double viewW, double viewH) {
+        return lerped[0] < viewX + viewW && lerped[0] + lerped[2] > viewX
+                && lerped[1] < viewY + viewH && lerped[1] + lerped[3] > viewY;
+    }
+    
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
 }
@@ -0,0 +1,234 @@
+package gj.graphics;
+
+import java.awt.Image;
+import java.util.Arrays;
+
+/**
+ * A reusable list of draw commands making up a single frame. Each command
+ * draws an image, scaled to a destination rectangle in physical coordinates,
+ * at a given Z-height.
+ * <p>
+ * Commands are stored in parallel primitive arrays that are only ever grown,
+ * so once the buffer has reached the size of a typical frame, filling and
+ * sorting it doesn't allocate. Images are referred to by small integer
+ * handles that are assigned in the order images are first added each frame,
+ * which are looked up in an identity-keyed open-addressed table so that
+ * finding an image's handle doesn't allocate either.
+ * <p>
+ * Before being drawn, commands are sorted by Z-height and then by image using
+ * an LSD radix sort, so that consecutive draws of the same image are grouped
+ * together wherever the drawing order allows. The sort is stable, so commands
+ * with the same Z-height and image are drawn in the order they were added.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+class DrawCommandBuffer {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private int count;
+
+    // Command data, indexed in the order commands were added.
+    private long[] keys;
+    private int[] imageHandles;
+    private int[] xs, ys, widths, heights, zHeights;
+
+    /**
+     * The command indices in drawing order, which is valid after sort().
+     */
+    private int[] order;
+
+    // Scratch space for the radix sort.
+    private long[] keyScratch;
+    private int[] orderScratch;
+    private final int[] histogram;
+
+    /**
+     * The image for each handle in use this frame.
+     */
+    private Image[] images;
+    private int imageCount;
+
+    /**
+     * The hash table mapping images to their handles. Each bucket holds an
+     * image (or null) and its handle. The length is always a power of two,
+     * and the table is kept at most half full.
+     */
+    private Image[] tableImages;
+    private int[] tableHandles;
+    private int tableMask;
+
+    DrawCommandBuffer() {
+        this.histogram = new int[RADIX];
+        this.images = new Image[16];
+        this.tableImages = new Image[32];
+        this.tableHandles = new int[32];
+        this.tableMask = 31;
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = Arrays.copyOf(keys == null ? new long[0] : keys, capacity);
+        imageHandles = Arrays.copyOf(imageHandles == null ? new int[0] : imageHandles, capacity);
+        xs = Arrays.copyOf(xs == null ? new int[0] : xs, capacity);
+        ys = Arrays.copyOf(ys == null ? new int[0] : ys, capacity);
+        widths = Arrays.copyOf(widths == null ? new int[0] : widths, capacity);
+        heights = Arrays.copyOf(heights == null ? new int[0] : heights, capacity);
+        zHeights = Arrays.copyOf(zHeights == null ? new int[0] : zHeights, capacity);
+        order = new int[capacity];
+        keyScratch = new long[capacity];
+        orderScratch = new int[capacity];
+    }
+
+    /**
+     * Removes every command, ready for the buffer to be filled again.
+     */
+    void clear() {
+        count = 0;
+        Arrays.fill(images, 0, imageCount, null); // Don't keep images alive after their entities are gone.
+        Arrays.fill(tableImages, null);
+        imageCount = 0;
+    }
+
+    /**
+     * Adds a command to draw the given image.
+     *
+     * @param img The image to draw.
+     * @param x The physical X coordinate to draw at.
+     * @param y The physical Y coordinate to draw at.
+     * @param w The physical width to scale the image to.
+     * @param h The physical height to scale the image to.
+     * @param zHeight The Z-height of the entity being drawn.
+     */
+    void add(Image img, int x, int y, int w, int h, int zHeight) {
+        if (count == keys.length) allocate(count * 2);
+
+        int handle = handleOf(img);
+
+        // Flipping the sign bit makes negative heights sort before positive ones when compared as unsigned values.
+        keys[count] = ((long)(zHeight ^ Integer.MIN_VALUE) << 32) | handle;
+        imageHandles[count] = handle;
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = w;
+        heights[count] = h;
+        zHeights[count] = zHeight;
+        count++;
+    }
+
+    /**
+     * Finds the handle of the given image, assigning it the next handle if it
+     * hasn't been added yet this frame.
+     */
+    private int handleOf(Image img) {
+        int b = hash(img) & tableMask;
+        for (; tableImages[b] != null; b = (b + 1) & tableMask) {
+            if (tableImages[b] == img) return tableHandles[b];
+        }
+
+        int handle = imageCount;
+        if (imageCount == images.length) images = Arrays.copyOf(images, imageCount * 2);
+        images[imageCount++] = img;
+        tableImages[b] = img;
+        tableHandles[b] = handle;
+        if (imageCount * 2 > tableImages.length) growTable();
+        return handle;
+    }
+
+    private void growTable() {
+        tableImages = new Image[tableImages.length * 2];
+        tableHandles = new int[tableImages.length];
+        tableMask = tableImages.length - 1;
+        for (int handle = 0; handle < imageCount; handle++) {
+            int b = hash(images[handle]) & tableMask;
+            while (tableImages[b] != null) b = (b + 1) & tableMask;
+            tableImages[b] = images[handle];
+            tableHandles[b] = handle;
+        }
+    }
+
+    private static int hash(Image img) {
+        int h = System.identityHashCode(img);
+        return h ^ (h >>> 16); // Identity hash codes vary mostly in their upper bits.
+    }
+
+    /**
+     * Sorts the commands into drawing order. Each pass of the radix sort
+     * handles one byte of the sort key, and passes over bytes that are the
+     * same for every command (such as the high bytes of the Z-height when all
+     * heights are small) are skipped, so a typical frame needs only two or
+     * three passes.
+     */
+    void sort() {
+        for (int i = 0; i < count; i++) order[i] = i;
+        // The keys in the order given by srcOrder, gathered again after each pass.
+        long[] srcKeys = keyScratch;
+        System.arraycopy(keys, 0, srcKeys, 0, count);
+
+        int[] srcOrder = order;
+        int[] dstOrder = orderScratch;
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) {
+                histogram[(int)(srcKeys[i] >>> shift) & (RADIX - 1)]++;
+            }
+            if (count == 0 || histogram[(int)(srcKeys[0] >>> shift) & (RADIX - 1)] == count) {
+                continue; // Every command has the same digit, so this pass wouldn't change anything.
+            }
+
+            for (int d = 0, total = 0; d < RADIX; d++) {
+                int c = histogram[d];
+                histogram[d] = total;
+                total += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int dst = histogram[(int)(srcKeys[i] >>> shift) & (RADIX - 1)]++;
+                dstOrder[dst] = srcOrder[i];
+            }
+            for (int i = 0; i < count; i++) {
+                srcKeys[i] = keys[dstOrder[i]];
+            }
+
+            int[] tmp = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = tmp;
+        }
+
+        if (srcOrder != order) System.arraycopy(srcOrder, 0, order, 0, count);
+    }
+
+    int size() {
+        return count;
+    }
+
+    // Accessors for the command at a given position in drawing order.
+
+    Image getImage(int position) {
+        return images[imageHandles[order[position]]];
+    }
+
+    int getImageHandle(int position) {
+        return imageHandles[order[position]];
+    }
+
+    int getX(int position) {
+        return xs[order[position]];
+    }
+
+    int getY(int position) {
+        return ys[order[position]];
+    }
+
+    int getWidth(int position) {
+        return widths[order[position]];
+    }
+
+    int getHeight(int position) {
+        return heights[order[position]];
+    }
+
+    int getZHeight(int position) {
+        return zHeights[order[position]];
+    }
+}
@@ -0,0 +1,21 @@
+package gj.graphics;
+
+/**
+ * The listener interface for receiving notifications each time a camera
+ * presents a frame. Listeners are invoked on the thread that renders the
+ * frame, so they should return quickly to avoid delaying the next one.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public interface FrameListener {
+    /**
+     * Invoked once the given camera has drawn and presented a frame.
+     *
+     * @param camera The Camera that rendered the frame.
+     * @param frameNanos The time taken to render the frame, in nanoseconds.
+     * @param entitiesDrawn The number of entities that fell within the view
+     * and were drawn.
+     */
+    void frameRendered(Camera camera, long frameNanos, int entitiesDrawn);
+}
@@ -0,0 +1,23 @@
+package gj.graphics;
+
+import java.awt.Graphics;
+
+/**
+ * The default render backend, which draws every command on the calling thread
+ * through a single graphics context.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+class Java2DBackend implements RenderBackend {
+    @Override
+    public void execute(DrawCommandBuffer commands, RenderTarget target, int renderWidth, int renderHeight) {
+        Graphics g = target.getOffscreenGraphics();
+        if (g == null) return;
+        for (int i = 0; i < commands.size(); i++) {
+            g.drawImage(commands.getImage(i), commands.getX(i), commands.getY(i),
+                    commands.getWidth(i), commands.getHeight(i), null);
+        }
+        g.dispose();
+    }
+}
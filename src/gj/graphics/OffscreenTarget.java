@@ -0,0 +1,128 @@
+package gj.graphics;
+
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+/**
+ * A render target that keeps rendered frames in memory rather than displaying
+ * them. This allows a game world to be rendered without a screen, e.g. when
+ * running automated tests or benchmarks on a headless machine.
+ * 
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class OffscreenTarget implements RenderTarget {
+    /**
+     * The colour used to fill the background where nothing is present.
+     */
+    private static final Color VOID_COLOUR = Color.DARK_GRAY;
+    
+    /**
+     * The display mode being emulated, which defines the full-resolution size
+     * of rendered frames.
+     */
+    private final DisplayMode displayMode;
+    
+    /**
+     * The image currently being drawn to.
+     */
+    private volatile BufferedImage offscreenImage;
+    
+    /**
+     * The most recently presented frame.
+     */
+    private volatile BufferedImage presentedImage;
+    
+    private long framesPresented;
+    
+    /**
+     * Constructor for a new OffscreenTarget.
+     * 
+     * @param width The width of rendered frames at full resolution.
+     * @param height The height of rendered frames at full resolution.
+     */
+    public OffscreenTarget(int width, int height) {
+        this.displayMode = new DisplayMode(width, height, 32, DisplayMode.REFRESH_RATE_UNKNOWN);
+        this.framesPresented = 0;
+        this.offscreenImage = createClearImage(width, height);
+        this.presentedImage = createClearImage(width, height);
+    }
+    
+    @Override
+    public Graphics getOffscreenGraphics() {
+        return offscreenImage.getGraphics();
+    }
+    
+    @Override
+    public int getRenderWidth() {
+        return offscreenImage.getWidth();
+    }
+    
+    @Override
+    public int getRenderHeight() {
+        return offscreenImage.getHeight();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the offscreen image is replaced, so the most recently presented
+     * frame is kept until the next one is presented.
+     */
+    @Override
+    public void setRenderScale(double scale) {
+        int width = Math.max(1, (int)Math.ceil(displayMode.getWidth() * scale));
+        int height = Math.max(1, (int)Math.ceil(displayMode.getHeight() * scale));
+        if (width != offscreenImage.getWidth() || height != offscreenImage.getHeight()) {
+            this.offscreenImage = createClearImage(width, height);
+        }
+    }
+    
+    @Override
+    public void present() {
+        BufferedImage back = presentedImage;
+        presentedImage = offscreenImage;
+        framesPresented++;
+        
+        if (back.getWidth() != presentedImage.getWidth() || back.getHeight() != presentedImage.getHeight()) {
+            // The render scale changed since this image was drawn, so replace it with one of the new size.
+            offscreenImage = createClearImage(presentedImage.getWidth(), presentedImage.getHeight());
+        } else {
+            Graphics g = back.getGraphics();
+            g.setColor(VOID_COLOUR);
+            g.fillRect(0, 0, back.getWidth(), back.getHeight());
+            g.dispose();
+            offscreenImage = back;
+        }
+    }
+    
+    @Override
+    public DisplayMode getCurrentDisplayMode() {
+        return displayMode;
+    }
+    
+    /**
+     * @return The most recently presented frame.
+     */
+    public BufferedImage getPresentedImage() {
+        return presentedImage;
+    }
+    
+    /**
+     * @return The number of frames presented so far.
+     */
+    public long getFramesPresented() {
+        return framesPresented;
+    }
+    
+    private static BufferedImage createClearImage(int width, int height) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics g = img.getGraphics();
+        g.setColor(VOID_COLOUR);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return img;
+    }
+}
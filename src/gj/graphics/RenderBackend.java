@@ -0,0 +1,29 @@
+package gj.graphics;
+
+/**
+ * A strategy for executing a frame's draw commands, which separates deciding
+ * what to draw (done by the camera) from how it is drawn.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+interface RenderBackend {
+    /**
+     * Draws every command in the given buffer, in sorted order, to the given
+     * target's offscreen image. This method doesn't return until drawing has
+     * finished.
+     *
+     * @param commands The sorted commands to draw.
+     * @param target The target whose offscreen image is drawn to.
+     * @param renderWidth The width of the offscreen image.
+     * @param renderHeight The height of the offscreen image.
+     */
+    void execute(DrawCommandBuffer commands, RenderTarget target, int renderWidth, int renderHeight);
+    
+    /**
+     * Releases any resources held by this backend. The default implementation
+     * of this method does nothing.
+     */
+    default void shutdown() {
+    }
+}
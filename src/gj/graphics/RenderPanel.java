@@ -3,7 +3,9 @@ package gj.graphics;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.RenderingHints;
 import javax.swing.JPanel;
 
 /**
@@ -16,8 +18,30 @@ class RenderPanel extends JPanel {
      * The image to which all drawing operations are applied. Rendering to an
      * offscreen image rather than drawing directly to the visible image means
      * that we can avoid screen tearing.
+     * <p>
+     * The image may be smaller than the panel if a render scale below 1 is in
+     * use, in which case it is stretched to fill the panel when painted.
      */
-    private Image offscreenImage;
+    private volatile Image offscreenImage;
+    
+    /**
+     * The most recently completed frame, which is the image painted to the
+     * screen. The render thread draws each frame into the offscreen image and
+     * then swaps the two, so the event dispatch thread never paints a frame
+     * that is still being drawn.
+     */
+    private Image presentedImage;
+    
+    /**
+     * Guards the swapping of the offscreen and presented images against
+     * painting.
+     */
+    private final Object swapLock = new Object();
+    
+    /**
+     * The size of the offscreen image relative to the size of the panel.
+     */
+    private double renderScale = 1.0;
     
     /**
      * The colour used to fill the background where nothing is present.
@@ -30,25 +54,120 @@ class RenderPanel extends JPanel {
     }
     
     public void initOffscreenGraphics() {
+        Image back = createScaledImage();
+        Image front = createScaledImage();
+        synchronized (swapLock) {
+            this.offscreenImage = back;
+            this.presentedImage = front;
+        }
+    }
+    
+    /**
+     * Changes the resolution of the offscreen image relative to the size of
+     * the panel, reallocating the image if it has already been initialised
+     * and the scale has changed. Only the offscreen image is replaced, so the
+     * frame currently on screen stays there (stretched to fit the panel, like
+     * any other frame) until the next one is presented. The presented image is
+     * resized when it next becomes the offscreen image. This should be called
+     * by the thread that draws to the offscreen image, between frames.
+     * 
+     * @param scale The new render scale, where 1 means the offscreen image
+     * matches the panel pixel for pixel.
+     */
+    public void setRenderScale(double scale) {
+        if (scale != renderScale) {
+            this.renderScale = scale;
+            if (offscreenImage != null) {
+                Image back = createScaledImage();
+                synchronized (swapLock) {
+                    this.offscreenImage = back;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Creates a cleared image of the size that the current render scale calls
+     * for.
+     */
+    private Image createScaledImage() {
         Dimension prefSize = getPreferredSize();
-        this.offscreenImage = this.getGraphicsConfiguration().createCompatibleImage(prefSize.width, prefSize.height);
+        int width = Math.max(1, (int)Math.ceil(prefSize.width * renderScale));
+        int height = Math.max(1, (int)Math.ceil(prefSize.height * renderScale));
+        Image img = this.getGraphicsConfiguration().createCompatibleImage(width, height);
+        clear(img);
+        return img;
     }
     
     public Graphics getOffscreenGraphics() {
-        if (offscreenImage != null) {
-            return offscreenImage.getGraphics();
+        Image img = offscreenImage;
+        if (img != null) {
+            return img.getGraphics();
         } else {
             return null;
         }
     }
     
+    /**
+     * @return The width of the offscreen image, in pixels.
+     */
+    public int getRenderWidth() {
+        Image img = offscreenImage;
+        return img != null ? img.getWidth(null) : getPreferredSize().width;
+    }
+    
+    /**
+     * @return The height of the offscreen image, in pixels.
+     */
+    public int getRenderHeight() {
+        Image img = offscreenImage;
+        return img != null ? img.getHeight(null) : getPreferredSize().height;
+    }
+    
+    /**
+     * Makes the frame that has just been drawn to the offscreen image the one
+     * that is painted, and clears the previously presented image so that it
+     * can be used to draw the next frame. This should be called by the thread
+     * that draws to the offscreen image.
+     */
+    public void swapBuffers() {
+        Image back;
+        synchronized (swapLock) {
+            if (offscreenImage == null) return;
+            back = presentedImage;
+            presentedImage = offscreenImage;
+            offscreenImage = back;
+        }
+        
+        if (back.getWidth(null) != presentedImage.getWidth(null) || back.getHeight(null) != presentedImage.getHeight(null)) {
+            // The render scale changed since this image was drawn, so replace it with one of the new size.
+            offscreenImage = createScaledImage();
+        } else {
+            // Clear the new offscreen image to prepare for the next frame:
+            clear(back);
+        }
+    }
+    
+    private void clear(Image img) {
+        Graphics g = img.getGraphics();
+        g.setColor(VOID_COLOUR);
+        g.fillRect(0, 0, img.getWidth(null), img.getHeight(null));
+        g.dispose();
+    }
+    
     @Override
     public void paint(Graphics g) {
-        g.drawImage(offscreenImage, 0, 0, null); // Apply the offscreen image to the screen.
-        
-        // Clear the offscreen image to prepare for the next frame:
-        Graphics offG = getOffscreenGraphics();
-        offG.setColor(VOID_COLOUR);
-        offG.fillRect(0, 0, getWidth(), getHeight());
+        synchronized (swapLock) {
+            Image img = presentedImage;
+            if (img == null) return;
+            
+            // Apply the presented image to the screen, upscaling it if it's been rendered at a lower resolution.
+            if (img.getWidth(null) == getWidth() && img.getHeight(null) == getHeight()) {
+                g.drawImage(img, 0, 0, null);
+            } else {
+                ((Graphics2D)g).setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(img, 0, 0, getWidth(), getHeight(), null);
+            }
+        }
     }
 }
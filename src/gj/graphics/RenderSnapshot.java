@@ -0,0 +1,81 @@
+package gj.graphics;
+
+import gj.entities.Entity;
+import java.awt.Image;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+
+/**
+ * A copy of everything a camera needs to draw its world, taken at the end of a
+ * tick. Snapshots are captured on the thread running the world's main loop and
+ * handed to the render thread, so that the renderer never reads an entity
+ * while it is being updated.
+ * <p>
+ * Snapshots are never modified once captured. Entities are matched up between
+ * snapshots by their IDs, using a {@link SnapshotIndex}.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+final class RenderSnapshot {
+    /**
+     * The time at which the snapshot was captured, as given by
+     * System.nanoTime().
+     */
+    final long time;
+
+    /**
+     * The camera's view at the time of capture.
+     */
+    final double viewX, viewY, viewW, viewH;
+
+    final int count;
+    final Entity[] ents;
+    final int[] ids;
+    final Image[] images;
+    final double[] x, y, w, h;
+    final int[] z;
+
+    private RenderSnapshot(long time, Rectangle2D view, int count) {
+        this.time = time;
+        this.viewX = view.getX();
+        this.viewY = view.getY();
+        this.viewW = view.getWidth();
+        this.viewH = view.getHeight();
+        this.count = count;
+        this.ents = new Entity[count];
+        this.ids = new int[count];
+        this.images = new Image[count];
+        this.x = new double[count];
+        this.y = new double[count];
+        this.w = new double[count];
+        this.h = new double[count];
+        this.z = new int[count];
+    }
+
+    /**
+     * Captures the state of the given entities, which must not be modified
+     * while this method runs.
+     *
+     * @param all Every entity in the world, in ascending order of Z-height.
+     * @param view The camera's current view.
+     * @return The new snapshot.
+     */
+    static RenderSnapshot capture(Collection<Entity> all, Rectangle2D view) {
+        RenderSnapshot s = new RenderSnapshot(System.nanoTime(), view, all.size());
+        int i = 0;
+        for (Entity e : all) {
+            Rectangle2D t = e.getTransform().getWorldBounds();
+            s.ents[i] = e;
+            s.ids[i] = e.getId();
+            s.images[i] = e.getImage();
+            s.x[i] = t.getX();
+            s.y[i] = t.getY();
+            s.w[i] = t.getWidth();
+            s.h[i] = t.getHeight();
+            s.z[i] = e.getZHeight();
+            i++;
+        }
+        return s;
+    }
+}
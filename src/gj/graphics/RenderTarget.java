@@ -0,0 +1,54 @@
+package gj.graphics;
+
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+
+/**
+ * Something that a camera can render frames to. A {@link RenderWindow} draws
+ * frames to the screen, while an {@link OffscreenTarget} keeps them in memory,
+ * which allows a world to be rendered without a display.
+ * <p>
+ * Frames are drawn to an offscreen image, whose size may be smaller than the
+ * display mode if a render scale below 1 is in use, and then presented.
+ * 
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public interface RenderTarget {
+    /**
+     * Retrieves a new graphics context used to draw to the offscreen image.
+     * Any modifications made to the offscreen image won't be visible until it
+     * is presented.
+     * 
+     * @return The offscreen Graphics context, or null if no such context exists
+     * yet.
+     */
+    Graphics getOffscreenGraphics();
+    
+    /**
+     * @return The width of the offscreen image, in pixels.
+     */
+    int getRenderWidth();
+    
+    /**
+     * @return The height of the offscreen image, in pixels.
+     */
+    int getRenderHeight();
+    
+    /**
+     * Sets the resolution at which frames are rendered, relative to the
+     * resolution of the current display mode.
+     * 
+     * @param scale The render scale, where 1 renders at the full display
+     * resolution.
+     */
+    void setRenderScale(double scale);
+    
+    /**
+     * Presents the frame that has just been drawn to the offscreen image, after
+     * which the offscreen image is clear and ready for the next frame.
+     */
+    void present();
+    
+    DisplayMode getCurrentDisplayMode();
+}
@@ -14,7 +14,9 @@ import javax.swing.JFrame;
  * full-screen modes.
  * <p>
  * Internally, all drawing operations are done to a buffered offscreen image,
- * which is then dispatched to the screen as a single atomic operation.
+ * which is then dispatched to the screen as a single atomic operation. A
+ * second image holds the most recently presented frame, so the window can be
+ * repainted at any time without showing a frame that is still being drawn.
  * <p>
  * Internally, this class extends JFrame by composition. Whenever the current
  * display mode is modified, the old JFrame is discarded and a new one is
@@ -23,7 +25,7 @@ import javax.swing.JFrame;
  * @author Joseph
  * @version 04-Jun-2016
  */
-public class RenderWindow {
+public class RenderWindow implements RenderTarget {
     /**
      * The internal JFrame used to represent this window. RenderWindow extends
      * JFrame through composition.
@@ -62,6 +64,12 @@ public class RenderWindow {
      */
     private RenderPanel panel;
     
+    /**
+     * The resolution that frames are rendered at relative to the display mode,
+     * which is carried over whenever the frame is reloaded.
+     */
+    private double renderScale;
+    
     /**
      * Constructs a new RenderWindow in full-screen mode with the given window
      * title, resolution, colour bit depth and refresh rate. The display may
@@ -83,6 +91,7 @@ public class RenderWindow {
         this.title = title;
         this.displayMode = dispMode;
         this.fullscreen = fullscreen;
+        this.renderScale = 1.0;
         
         reloadFrame();
     }
@@ -130,6 +139,7 @@ public class RenderWindow {
         
         this.panel = new RenderPanel(displayMode.getWidth(), displayMode.getHeight());
         frame.add(panel);
+        panel.setRenderScale(renderScale);
         panel.initOffscreenGraphics();
         
         frame.setResizable(false);
@@ -189,15 +199,53 @@ public class RenderWindow {
     /**
      * Retrieves the graphics context used to draw to the offscreen image used
      * by this window. Note that any modifications made to the offscreen image
-     * won't be applied until the window is repainted.
+     * won't be applied until the window is presented.
      * 
      * @return The offscreen Graphics context, or null if no such context exists
      * yet.
      */
+    @Override
     public Graphics getOffscreenGraphics() {
         return panel.getOffscreenGraphics();
     }
     
+    /**
+     * Sets the resolution at which frames are rendered, relative to the
+     * resolution of the current display mode. Frames rendered at a lower
+     * resolution are upscaled to fill the window when they are displayed.
+     * 
+     * @param scale The render scale, where 1 renders at the full display
+     * resolution.
+     */
+    @Override
+    public void setRenderScale(double scale) {
+        this.renderScale = scale;
+        panel.setRenderScale(scale);
+    }
+    
+    public double getRenderScale() {
+        return renderScale;
+    }
+    
+    /**
+     * @return The width of the offscreen image that frames are rendered to, in
+     * pixels.
+     */
+    @Override
+    public int getRenderWidth() {
+        return panel.getRenderWidth();
+    }
+    
+    /**
+     * @return The height of the offscreen image that frames are rendered to, in
+     * pixels.
+     */
+    @Override
+    public int getRenderHeight() {
+        return panel.getRenderHeight();
+    }
+    
+    @Override
     public DisplayMode getCurrentDisplayMode() {
         return displayMode;
     }
@@ -210,6 +258,18 @@ public class RenderWindow {
         frame.repaint();
     }
     
+    /**
+     * Displays the frame that has just been drawn to the offscreen image. The
+     * offscreen image is swapped with the image being displayed, so once this
+     * method returns, the offscreen image is clear and ready for the next
+     * frame to be drawn.
+     */
+    @Override
+    public void present() {
+        panel.swapBuffers();
+        frame.repaint();
+    }
+    
     public void addKeyListener(KeyListener l) {
         frame.addKeyListener(l);
     }
@@ -0,0 +1,117 @@
+package gj.graphics;
+
+/**
+ * Chooses the internal resolution that a camera renders at, based on how long
+ * recent frames have taken to render compared with a frame time budget.
+ * <p>
+ * The render scale is chosen from a fixed series of steps. When the smoothed
+ * render time goes over budget, the scale drops by a step; it only rises by a
+ * step again once the render time has stayed comfortably under budget for a
+ * sustained period. The gap between those two thresholds, along with a short
+ * cooldown after each change, stops the resolution from flickering back and
+ * forth when the render time sits close to the budget.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ResolutionScaler {
+    /**
+     * The render scales that can be chosen from, from best to worst quality.
+     */
+    private static final double[] SCALE_STEPS = {1.0, 0.85, 0.7, 0.6, 0.5};
+
+    /**
+     * The weight given to each new frame in the smoothed render time.
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * The fraction of the budget that the smoothed render time must stay under
+     * before the resolution is raised.
+     */
+    private static final double RECOVERY_THRESHOLD = 0.6;
+
+    /**
+     * The number of consecutive frames the render time must stay under the
+     * recovery threshold before the resolution is raised.
+     */
+    private static final int RECOVERY_FRAMES = 90;
+
+    /**
+     * The number of frames to wait after any change before lowering the
+     * resolution again, giving the smoothed render time a chance to reflect
+     * the new resolution.
+     */
+    private static final int COOLDOWN_FRAMES = 15;
+
+    /**
+     * The frame time budget, in nanoseconds.
+     */
+    private final long budgetNanos;
+
+    /**
+     * The index of the current step in SCALE_STEPS.
+     */
+    private int step;
+
+    /**
+     * The exponentially smoothed render time, in nanoseconds.
+     */
+    private double smoothedNanos;
+
+    private int framesSinceChange;
+    private int framesUnderThreshold;
+
+    /**
+     * Constructor for a new ResolutionScaler.
+     *
+     * @param budgetMillis The longest that rendering a frame should take, in
+     * milliseconds.
+     */
+    public ResolutionScaler(double budgetMillis) {
+        this.budgetNanos = (long)(budgetMillis * 1000000);
+        this.step = 0;
+        this.smoothedNanos = 0;
+        this.framesSinceChange = 0;
+        this.framesUnderThreshold = 0;
+    }
+
+    /**
+     * Records the time taken to render a frame and updates the render scale
+     * if necessary.
+     *
+     * @param renderNanos The time taken to render the frame, in nanoseconds.
+     * @return True if the render scale has changed.
+     */
+    public boolean recordFrame(long renderNanos) {
+        smoothedNanos = (smoothedNanos == 0) ? renderNanos : smoothedNanos + SMOOTHING * (renderNanos - smoothedNanos);
+        framesSinceChange++;
+        framesUnderThreshold = (smoothedNanos < budgetNanos * RECOVERY_THRESHOLD) ? framesUnderThreshold + 1 : 0;
+
+        if (smoothedNanos > budgetNanos && framesSinceChange >= COOLDOWN_FRAMES && step < SCALE_STEPS.length - 1) {
+            step++;
+        } else if (framesUnderThreshold >= RECOVERY_FRAMES && step > 0) {
+            step--;
+        } else {
+            return false;
+        }
+        framesSinceChange = 0;
+        framesUnderThreshold = 0;
+        return true;
+    }
+
+    /**
+     * @return The fraction of the display resolution that frames should
+     * currently be rendered at.
+     */
+    public double getScale() {
+        return SCALE_STEPS[step];
+    }
+
+    /**
+     * @return The smoothed render time, in milliseconds.
+     */
+    public double getSmoothedMillis() {
+        return smoothedNanos / 1000000;
+    }
+}
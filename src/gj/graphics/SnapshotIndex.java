@@ -0,0 +1,80 @@
+package gj.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Finds entities in a render snapshot by their IDs. This is used to match each
+ * entity in the current snapshot with its state in the previous one, which
+ * can't be done by position alone since adding or removing a single entity
+ * shifts the position of every entity after it.
+ * <p>
+ * The index is an open-addressed hash table held in primitive arrays, which
+ * is rebuilt in place for each new snapshot, so once it has grown to the size
+ * of the world it doesn't allocate.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+class SnapshotIndex {
+    private static final int EMPTY = -1;
+
+    private RenderSnapshot snapshot;
+
+    /**
+     * The position in the snapshot of the entity held in each bucket, or
+     * EMPTY. The length is always a power of two.
+     */
+    private int[] buckets;
+    private int mask;
+
+    SnapshotIndex() {
+        this.buckets = new int[16];
+        this.mask = buckets.length - 1;
+    }
+
+    /**
+     * Rebuilds the index to cover the given snapshot, unless it already does.
+     *
+     * @param s The snapshot to index.
+     */
+    void build(RenderSnapshot s) {
+        if (s == snapshot) return;
+        snapshot = s;
+
+        // Keep the table at most half full.
+        if (buckets.length < s.count * 2) {
+            buckets = new int[Integer.highestOneBit(Math.max(1, s.count * 2 - 1)) << 1];
+            mask = buckets.length - 1;
+        }
+        Arrays.fill(buckets, EMPTY);
+        for (int i = 0; i < s.count; i++) {
+            int b = hash(s.ids[i]) & mask;
+            while (buckets[b] != EMPTY) b = (b + 1) & mask;
+            buckets[b] = i;
+        }
+    }
+
+    /**
+     * Finds an entity in the indexed snapshot. Since entities are rarely
+     * added or removed between ticks, the entity is usually at the same
+     * position as in the snapshot it came from, so that position is checked
+     * before the table.
+     *
+     * @param id The ID of the entity to find.
+     * @param hint The position the entity is most likely to be at.
+     * @return The entity's position, or -1 if it isn't in the snapshot.
+     */
+    int indexOf(int id, int hint) {
+        RenderSnapshot s = snapshot;
+        if (hint < s.count && s.ids[hint] == id) return hint;
+        for (int b = hash(id) & mask; buckets[b] != EMPTY; b = (b + 1) & mask) {
+            if (s.ids[buckets[b]] == id) return buckets[b];
+        }
+        return -1;
+    }
+
+    private static int hash(int id) {
+        // IDs are mostly consecutive, so spread them out to avoid long runs of full buckets.
+        return id * 0x9E3779B1;
+    }
+}
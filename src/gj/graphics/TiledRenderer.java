@@ -0,0 +1,124 @@
+package gj.graphics;
+
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A render backend that draws into a render target's offscreen image using
+ * several threads at once.
+ * <p>
+ * The offscreen image is divided into horizontal bands, and each command is
+ * placed in the bucket of every band it overlaps. The bands are then drawn in
+ * parallel, each through its own graphics context clipped to the band. Since
+ * the bands don't overlap, no synchronisation is needed between threads, and
+ * since each bucket keeps the commands in sorted order, images are still drawn
+ * in order of Z-height within every band.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+class TiledRenderer implements RenderBackend {
+    /**
+     * The number of bands per thread. Using more bands than threads evens out
+     * the work when entities are bunched up in one part of the screen.
+     */
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final ExecutorService pool;
+    private final int bandCount;
+
+    /**
+     * The positions of the commands overlapping each band, in drawing order.
+     */
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+
+    private final List<Callable<Void>> tasks;
+
+    /**
+     * The commands being drawn in the current frame.
+     */
+    private DrawCommandBuffer commands;
+
+    /**
+     * Constructor for a new TiledRenderer.
+     *
+     * @param threads The number of threads to draw with.
+     */
+    TiledRenderer(int threads) {
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "TiledRenderer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.bandCount = threads * BANDS_PER_THREAD;
+        this.buckets = new int[bandCount][16];
+        this.bucketSizes = new int[bandCount];
+        this.tasks = new ArrayList<>(bandCount);
+    }
+
+    @Override
+    public void execute(DrawCommandBuffer commands, RenderTarget target, int renderWidth, int renderHeight) {
+        this.commands = commands;
+
+        int bandHeight = (renderHeight + bandCount - 1) / bandCount;
+        Arrays.fill(bucketSizes, 0);
+        for (int i = 0; i < commands.size(); i++) {
+            int y = commands.getY(i), h = commands.getHeight(i);
+            if (h <= 0) continue;
+            int first = Math.max(0, y / bandHeight);
+            int last = Math.min(bandCount - 1, (y + h - 1) / bandHeight);
+            for (int b = first; b <= last; b++) {
+                if (bucketSizes[b] == buckets[b].length) {
+                    buckets[b] = Arrays.copyOf(buckets[b], buckets[b].length * 2);
+                }
+                buckets[b][bucketSizes[b]++] = i;
+            }
+        }
+
+        tasks.clear();
+        for (int b = 0; b < bandCount; b++) {
+            if (bucketSizes[b] == 0) continue;
+            final int band = b;
+            tasks.add(() -> {
+                drawBand(target.getOffscreenGraphics(), band, band * bandHeight, renderWidth, bandHeight);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt(); // Let the main loop see that it has been interrupted.
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    private void drawBand(Graphics g, int band, int y, int width, int height) {
+        if (g == null) return;
+        g.clipRect(0, y, width, height);
+        int[] bucket = buckets[band];
+        for (int k = 0; k < bucketSizes[band]; k++) {
+            int i = bucket[k];
+            g.drawImage(commands.getImage(i), commands.getX(i), commands.getY(i),
+                    commands.getWidth(i), commands.getHeight(i), null);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Stops the renderer's threads. The renderer can't be used afterwards.
+     */
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
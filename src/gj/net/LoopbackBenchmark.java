@@ -0,0 +1,104 @@
+package gj.net;
+
+import gj.entities.Entity;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the bandwidth and server CPU time used per client by running a
+ * replication server and many simulated clients over the loopback interface.
+ * No window is needed, so this can be run headless.
+ * <p>
+ * Usage: <code>LoopbackBenchmark [clients] [entities] [seconds] [movingFraction]</code>
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class LoopbackBenchmark {
+    private static final int TICK_RATE = 60;
+    private static final double WORLD_SIZE = 4000;
+    private static final double VIEW_WIDTH = 1366, VIEW_HEIGHT = 768;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int entityCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        double movingFraction = args.length > 3 ? Double.parseDouble(args[3]) : 0.25;
+
+        Random rand = new Random(42);
+        BufferedImage img = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        List<Entity> ents = new ArrayList<>();
+        for (int i = 0; i < entityCount; i++) {
+            ents.add(new Entity(rand.nextDouble() * WORLD_SIZE, rand.nextDouble() * WORLD_SIZE, img, rand.nextInt(10)));
+        }
+
+        ReplicationServer server = new ReplicationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+
+        List<ReplicationClient> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            ReplicationClient client = new ReplicationClient(address);
+            client.setView(new Rectangle2D.Double(
+                    rand.nextDouble() * (WORLD_SIZE - VIEW_WIDTH), rand.nextDouble() * (WORLD_SIZE - VIEW_HEIGHT),
+                    VIEW_WIDTH, VIEW_HEIGHT));
+            clients.add(client);
+        }
+
+        System.out.println(String.format("%d clients, %d entities, %.0f%% moving, %d ticks/s",
+                clientCount, entityCount, movingFraction * 100, TICK_RATE));
+
+        long tickNanos = 1000000000L / TICK_RATE;
+        long nextTick = System.nanoTime();
+        long reportTime = nextTick + 1000000000L;
+        long endTime = nextTick + seconds * 1000000000L;
+        long lastBytes = 0, lastSent = 0, lastEncode = 0, decodeNanos = 0;
+        int movingCount = (int)(entityCount * movingFraction);
+
+        while (System.nanoTime() < endTime) {
+            // Move a fixed subset of the entities, as an authoritative world would.
+            for (int i = 0; i < movingCount; i++) {
+                ents.get(i).getTransform().translate(rand.nextDouble() * 4 - 2, rand.nextDouble() * 4 - 2);
+            }
+            server.publish(ents);
+
+            long decodeStart = System.nanoTime();
+            for (ReplicationClient client : clients) {
+                client.poll();
+                client.getEntities();
+            }
+            decodeNanos += System.nanoTime() - decodeStart;
+
+            long now = System.nanoTime();
+            if (now >= reportTime) {
+                long bytes = server.getBytesSent(), sent = server.getSnapshotsSent(), encode = server.getEncodeNanos();
+                int connected = Math.max(1, server.getClientCount());
+                System.out.println(String.format(
+                        "clients=%d  KB/s per client=%.1f  encode us per client-snapshot=%.1f  decode us per client-tick=%.1f  skipped=%d",
+                        server.getClientCount(),
+                        (bytes - lastBytes) / 1024.0 / connected,
+                        sent == lastSent ? 0 : (encode - lastEncode) / 1000.0 / (sent - lastSent),
+                        decodeNanos / 1000.0 / clientCount / TICK_RATE,
+                        server.getSnapshotsSkipped()));
+                lastBytes = bytes;
+                lastSent = sent;
+                lastEncode = encode;
+                decodeNanos = 0;
+                reportTime += 1000000000L;
+            }
+
+            nextTick += tickNanos;
+            long sleep = nextTick - System.nanoTime();
+            if (sleep > 0) Thread.sleep(sleep / 1000000, (int)(sleep % 1000000));
+        }
+
+        for (ReplicationClient client : clients) client.close();
+        server.stop();
+    }
+}
@@ -0,0 +1,41 @@
+package gj.net;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The client-side view of an entity replicated from a server, holding its
+ * interpolated position and size along with its Z-height.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ReplicatedEntity extends Rectangle2D.Double {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The ID assigned to the entity by the server, which remains the same for
+     * as long as the entity stays in the server's world.
+     */
+    private final int id;
+
+    private final int zHeight;
+
+    ReplicatedEntity(int id, double x, double y, double w, double h, int zHeight) {
+        super(x, y, w, h);
+        this.id = id;
+        this.zHeight = zHeight;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getZHeight() {
+        return zHeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Replicated entity %d: [%.2f, %.2f, %.2f, %.2f]", id, x, y, width, height);
+    }
+}
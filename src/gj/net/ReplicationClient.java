@@ -0,0 +1,214 @@
+package gj.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mirrors the world published by a {@link ReplicationServer}.
+ * <p>
+ * The client never blocks. Instead, it is driven by calling {@link #poll()}
+ * from the client's own loop (typically once per frame), which reads and
+ * decodes every snapshot that has arrived, acknowledges the newest one and
+ * sends any pending view change to the server.
+ * <p>
+ * Since snapshots arrive at the server's tick rate rather than the client's
+ * frame rate, {@link #getEntities()} doesn't return the raw contents of the
+ * latest snapshot. Entities are instead interpolated between the two most
+ * recent snapshots, which means the client displays the world roughly one
+ * snapshot interval behind the server in exchange for smooth motion.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ReplicationClient {
+    private final SocketChannel channel;
+
+    private ByteBuffer in;
+
+    /**
+     * Messages waiting to be written to the server.
+     */
+    private ByteBuffer out;
+
+    /**
+     * Every snapshot received recently, indexed by tick modulo the history
+     * size, so that deltas can be applied to whichever one the server
+     * considers the baseline.
+     */
+    private final Snapshot[] history;
+
+    /**
+     * The two most recent snapshots and the times at which they arrived, as
+     * given by System.nanoTime().
+     */
+    private Snapshot previous, latest;
+    private long previousArrival, latestArrival;
+
+    private long bytesReceived;
+
+    /**
+     * Opens a connection to a replication server. The connection completes
+     * asynchronously during subsequent calls to {@link #poll()}.
+     *
+     * @param server The address of the server.
+     * @throws IOException If the connection can't be initiated.
+     */
+    public ReplicationClient(InetSocketAddress server) throws IOException {
+        this.channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.connect(server);
+
+        this.in = ByteBuffer.allocate(64 * 1024);
+        this.out = ByteBuffer.allocate(256);
+        this.history = new Snapshot[WireFormat.HISTORY_SIZE];
+        this.previous = Snapshot.EMPTY;
+        this.latest = Snapshot.EMPTY;
+    }
+
+    /**
+     * Tells the server which region of the world this client is displaying.
+     * Only entities that intersect the view are replicated. Until this is
+     * called, the server replicates every entity.
+     *
+     * @param view The client camera's view, in world coordinates.
+     */
+    public void setView(Rectangle2D view) {
+        out = WireFormat.ensureRemaining(out, WireFormat.FRAME_HEADER_SIZE + WireFormat.VIEW_LENGTH);
+        out.putInt(WireFormat.VIEW_LENGTH);
+        out.put(WireFormat.MSG_VIEW);
+        out.putDouble(view.getX());
+        out.putDouble(view.getY());
+        out.putDouble(view.getWidth());
+        out.putDouble(view.getHeight());
+    }
+
+    /**
+     * Performs all pending network I/O without blocking.
+     *
+     * @return The number of snapshots that were received.
+     * @throws IOException If the connection fails or the server closes it.
+     */
+    public int poll() throws IOException {
+        if (channel.isConnectionPending()) {
+            if (!channel.finishConnect()) return 0;
+        }
+
+        int received = 0;
+        int read;
+        while ((read = channel.read(in)) > 0) {
+            bytesReceived += read;
+            received += decodeFrames();
+        }
+        if (read < 0) throw new IOException("The server closed the connection.");
+
+        if (received > 0) {
+            out = WireFormat.ensureRemaining(out, WireFormat.FRAME_HEADER_SIZE + WireFormat.ACK_LENGTH);
+            out.putInt(WireFormat.ACK_LENGTH);
+            out.put(WireFormat.MSG_ACK);
+            out.putLong(latest.tick);
+        }
+
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return received;
+    }
+
+    private int decodeFrames() throws IOException {
+        int received = 0;
+        in.flip();
+        while (in.remaining() >= WireFormat.FRAME_HEADER_SIZE) {
+            int length = in.getInt(in.position());
+            if (in.remaining() < WireFormat.FRAME_HEADER_SIZE + length) {
+                if (in.capacity() < WireFormat.FRAME_HEADER_SIZE + length) { // Make room for a large snapshot.
+                    ByteBuffer bigger = ByteBuffer.allocate(WireFormat.FRAME_HEADER_SIZE + length);
+                    bigger.put(in);
+                    in = bigger;
+                    return received;
+                }
+                break;
+            }
+
+            int frameEnd = in.position() + WireFormat.FRAME_HEADER_SIZE + length;
+            in.position(in.position() + WireFormat.FRAME_HEADER_SIZE);
+            int oldLimit = in.limit();
+            in.limit(frameEnd);
+
+            if (in.get() == WireFormat.MSG_SNAPSHOT) {
+                long tick = WireFormat.getVarLong(in);
+                long baseTick = WireFormat.getVarLong(in);
+                Snapshot base = baseTick == 0 ? Snapshot.EMPTY : history[(int)(baseTick % WireFormat.HISTORY_SIZE)];
+                if (base == null || base.tick != baseTick) {
+                    throw new IOException("Received a delta against unknown snapshot " + baseTick);
+                }
+                Snapshot snapshot = Snapshot.decodeDelta(tick, base, in);
+                history[(int)(tick % WireFormat.HISTORY_SIZE)] = snapshot;
+
+                previous = latest;
+                previousArrival = latestArrival;
+                latest = snapshot;
+                latestArrival = System.nanoTime();
+                received++;
+            }
+
+            in.limit(oldLimit);
+            in.position(frameEnd);
+        }
+        in.compact();
+        return received;
+    }
+
+    /**
+     * Returns the entities currently visible to this client, interpolated
+     * between the two most recently received snapshots according to the
+     * current time.
+     *
+     * @return A new list of entities in ascending order of ID.
+     */
+    public List<ReplicatedEntity> getEntities() {
+        double alpha = 1.0;
+        long interval = latestArrival - previousArrival;
+        if (previous != Snapshot.EMPTY && interval > 0) {
+            alpha = Math.min(1.0, (System.nanoTime() - latestArrival) / (double)interval);
+        }
+
+        List<ReplicatedEntity> ents = new ArrayList<>(latest.count);
+        for (int i = 0; i < latest.count; i++) {
+            double x = latest.x[i], y = latest.y[i], w = latest.w[i], h = latest.h[i];
+            int p = previous.indexOf(latest.ids[i]);
+            if (p >= 0) { // Entities that have only just appeared are shown where they are.
+                x = previous.x[p] + (x - previous.x[p]) * alpha;
+                y = previous.y[p] + (y - previous.y[p]) * alpha;
+                w = previous.w[p] + (w - previous.w[p]) * alpha;
+                h = previous.h[p] + (h - previous.h[p]) * alpha;
+            }
+            ents.add(new ReplicatedEntity(latest.ids[i],
+                    x / WireFormat.QUANT_SCALE, y / WireFormat.QUANT_SCALE,
+                    w / WireFormat.QUANT_SCALE, h / WireFormat.QUANT_SCALE,
+                    latest.z[i]));
+        }
+        return ents;
+    }
+
+    /**
+     * @return The tick of the most recent snapshot received, or 0 if none has
+     * arrived yet.
+     */
+    public long getLatestTick() {
+        return latest.tick;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
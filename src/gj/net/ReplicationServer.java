@@ -0,0 +1,447 @@
+package gj.net;
+
+import gj.GameWorld;
+import gj.TickListener;
+import gj.entities.Entity;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replicates the state of an authoritative game world to any number of
+ * connected {@link ReplicationClient}s.
+ * <p>
+ * Each time a snapshot is published, the server captures the quantised
+ * transform of every entity and hands it to its I/O thread, which uses a
+ * single non-blocking selector to service every client. For each client, the
+ * snapshot is reduced to the entities that intersect the client's camera view
+ * and then delta-encoded against the most recent snapshot that the client has
+ * acknowledged, so only entities that have actually changed are sent.
+ * <p>
+ * A client whose socket can't keep up simply skips snapshots until its
+ * previous one has been fully written; since every snapshot is encoded against
+ * an acknowledged baseline, skipped snapshots never need to be resent.
+ * <p>
+ * A server can be attached to a GameWorld as a {@link TickListener}, in which
+ * case a snapshot is published at the end of every tick, or snapshots can be
+ * published manually using {@link #publish(Collection)}.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ReplicationServer implements TickListener {
+    /**
+     * The address the server listens on.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * The IDs assigned to each entity seen so far. This is only accessed by the
+     * thread that publishes snapshots.
+     */
+    private Map<Entity, Integer> entityIds;
+
+    private int nextEntityId;
+
+    /**
+     * The tick number of the most recently published snapshot.
+     */
+    private long publishedTick;
+
+    /**
+     * The most recently published snapshot that hasn't yet been sent by the
+     * I/O thread. If several snapshots are published before the I/O thread
+     * gets around to them, only the latest is sent.
+     */
+    private final AtomicReference<Snapshot> pending;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * The clients currently connected. Only accessed by the I/O thread.
+     */
+    private final List<Connection> connections;
+
+    /**
+     * A scratch buffer that each client's snapshot is encoded into before it
+     * is copied into that client's outgoing buffer.
+     */
+    private ByteBuffer scratch;
+
+    private final IoLoop ioLoop;
+
+    /**
+     * The error that stopped the I/O thread, or null if it hasn't failed.
+     */
+    private volatile IOException failure;
+
+    // Statistics, which may be read from any thread.
+    private volatile int clientCount;
+    private final AtomicLong bytesSent;
+    private final AtomicLong snapshotsSent;
+    private final AtomicLong snapshotsSkipped;
+    private final AtomicLong encodeNanos;
+
+    /**
+     * Constructs a new ReplicationServer that will listen on the given
+     * address once started.
+     *
+     * @param address The address to listen on. A port number of 0 lets the
+     * operating system choose a free port, which can then be found using
+     * {@link #getLocalPort()}.
+     */
+    public ReplicationServer(InetSocketAddress address) {
+        this.address = address;
+        this.entityIds = new IdentityHashMap<>();
+        this.nextEntityId = 1;
+        this.publishedTick = 0;
+        this.pending = new AtomicReference<>();
+        this.connections = new ArrayList<>();
+        this.scratch = ByteBuffer.allocate(64 * 1024);
+        this.ioLoop = new IoLoop();
+        this.bytesSent = new AtomicLong();
+        this.snapshotsSent = new AtomicLong();
+        this.snapshotsSkipped = new AtomicLong();
+        this.encodeNanos = new AtomicLong();
+    }
+
+    public ReplicationServer(int port) {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Binds the server to its address and starts the I/O thread.
+     *
+     * @throws IOException If the server socket can't be opened.
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        ioLoop.start();
+    }
+
+    /**
+     * Stops the I/O thread and disconnects every client.
+     */
+    public void stop() {
+        ioLoop.interrupt();
+        if (selector != null) selector.wakeup();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The local port, or -1 if the server hasn't been started.
+     */
+    public int getLocalPort() {
+        return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Determines whether the server is running, i.e. it has been started and
+     * its I/O thread has neither been stopped nor failed.
+     *
+     * @return Whether the server is sending snapshots to its clients.
+     */
+    public boolean isRunning() {
+        return ioLoop.isAlive();
+    }
+
+    /**
+     * Returns the error that stopped the server's I/O thread, if any. Once the
+     * I/O thread has failed, every client is disconnected and published
+     * snapshots are discarded.
+     *
+     * @return The error, or null if the server hasn't failed.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Publishes a snapshot of the given world. Once the server has failed,
+     * this does nothing rather than stopping the world's main loop; the
+     * failure can be found using {@link #getFailure()}.
+     */
+    @Override
+    public void tickCompleted(GameWorld world, long tick, double dt) {
+        if (failure == null) publish(world.getAllEntities());
+    }
+
+    /**
+     * Captures the current state of the given entities and queues it to be
+     * sent to every client. This must always be called from the same thread,
+     * and the entities must not be modified while it runs (e.g. by calling it
+     * from the thread that updates them).
+     *
+     * @param ents The entities to replicate.
+     * @throws IllegalStateException If the server has failed, in which case
+     * the cause is the error returned by {@link #getFailure()}.
+     */
+    public void publish(Collection<Entity> ents) throws IllegalStateException {
+        if (failure != null) throw new IllegalStateException("Replication server has failed", failure);
+        Map<Entity, Integer> ids = new IdentityHashMap<>(ents.size() * 2);
+        Snapshot snapshot = new Snapshot(++publishedTick, ents.size());
+        for (Entity e : ents) {
+            Integer id = entityIds.get(e);
+            if (id == null) id = nextEntityId++;
+            ids.put(e, id);
+
+            Rectangle2D t = e.getTransform().getWorldBounds();
+            snapshot.add(id,
+                    WireFormat.quantize(t.getX()), WireFormat.quantize(t.getY()),
+                    WireFormat.quantize(t.getWidth()), WireFormat.quantize(t.getHeight()),
+                    e.getZHeight());
+        }
+        // Dropping the IDs of entities that have left the world stops the map from growing forever.
+        entityIds = ids;
+
+        pending.set(snapshot.sortedById());
+        if (selector != null) selector.wakeup();
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    /**
+     * @return The total number of bytes written to all clients.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * @return The total number of snapshots encoded and sent, counting one per
+     * client.
+     */
+    public long getSnapshotsSent() {
+        return snapshotsSent.get();
+    }
+
+    /**
+     * @return The total number of snapshots not sent to a client because its
+     * previous one was still being written.
+     */
+    public long getSnapshotsSkipped() {
+        return snapshotsSkipped.get();
+    }
+
+    /**
+     * @return The total time the I/O thread has spent filtering and encoding
+     * snapshots, in nanoseconds.
+     */
+    public long getEncodeNanos() {
+        return encodeNanos.get();
+    }
+
+    /**
+     * The state held by the server for each connected client.
+     */
+    private static class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        ByteBuffer in;
+        ByteBuffer out;
+
+        /**
+         * The client's view in quantised world units, if it has sent one.
+         */
+        boolean hasView;
+        int viewX, viewY, viewW, viewH;
+
+        /**
+         * The snapshots recently sent to this client, indexed by tick modulo
+         * the history size.
+         */
+        final Snapshot[] history;
+        long ackedTick;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.in = ByteBuffer.allocate(256);
+            this.out = ByteBuffer.allocate(0);
+            this.history = new Snapshot[WireFormat.HISTORY_SIZE];
+            this.ackedTick = 0;
+        }
+
+        Snapshot baseline() {
+            Snapshot base = history[(int)(ackedTick % WireFormat.HISTORY_SIZE)];
+            return (base != null && base.tick == ackedTick) ? base : Snapshot.EMPTY;
+        }
+    }
+
+    /**
+     * The thread that services every client connection.
+     */
+    private class IoLoop extends Thread {
+        IoLoop() {
+            super("ReplicationServer");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    selector.select();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        handle(key);
+                    }
+
+                    Snapshot snapshot = pending.getAndSet(null);
+                    if (snapshot != null) broadcast(snapshot);
+                }
+            } catch (IOException ex) {
+                failure = ex; // Reported through getFailure() and by the next call to publish().
+            } catch (RuntimeException ex) {
+                failure = new IOException("Replication I/O thread failed", ex);
+            } finally {
+                while (!connections.isEmpty()) close(connections.get(0));
+                try {
+                    serverChannel.close();
+                    selector.close();
+                } catch (IOException ex) {
+                    // Nothing more can be done at this point.
+                }
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            SocketChannel ch = serverChannel.accept();
+            if (ch == null) return;
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            SelectionKey clientKey = ch.register(selector, SelectionKey.OP_READ);
+            Connection c = new Connection(ch, clientKey);
+            clientKey.attach(c);
+            connections.add(c);
+            clientCount = connections.size();
+            return;
+        }
+
+        Connection c = (Connection)key.attachment();
+        try {
+            if (key.isReadable()) read(c);
+            if (key.isValid() && key.isWritable()) flush(c);
+        } catch (IOException ex) {
+            close(c); // A client disconnecting shouldn't affect anybody else.
+        }
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            close(c);
+            return;
+        }
+
+        c.in.flip();
+        while (c.in.remaining() >= WireFormat.FRAME_HEADER_SIZE) {
+            int length = c.in.getInt(c.in.position());
+            if (length <= 0 || length > c.in.capacity() - WireFormat.FRAME_HEADER_SIZE) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            if (c.in.remaining() < WireFormat.FRAME_HEADER_SIZE + length) break;
+            c.in.position(c.in.position() + WireFormat.FRAME_HEADER_SIZE);
+            int frameEnd = c.in.position() + length;
+
+            // Check each message's length before reading it, so that a malformed frame only disconnects its sender.
+            byte type = c.in.get();
+            if (type == WireFormat.MSG_VIEW) {
+                if (length != WireFormat.VIEW_LENGTH) throw new IOException("Invalid view message length: " + length);
+                c.viewX = WireFormat.quantize(c.in.getDouble());
+                c.viewY = WireFormat.quantize(c.in.getDouble());
+                c.viewW = WireFormat.quantize(c.in.getDouble());
+                c.viewH = WireFormat.quantize(c.in.getDouble());
+                c.hasView = true;
+            } else if (type == WireFormat.MSG_ACK) {
+                if (length != WireFormat.ACK_LENGTH) throw new IOException("Invalid ack message length: " + length);
+                long tick = c.in.getLong();
+                if (tick > c.ackedTick) c.ackedTick = tick;
+            } else {
+                throw new IOException("Unknown message type: " + type);
+            }
+            c.in.position(frameEnd);
+        }
+        c.in.compact();
+    }
+
+    private void flush(Connection c) throws IOException {
+        bytesSent.addAndGet(c.channel.write(c.out));
+        c.key.interestOps(c.out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void broadcast(Snapshot snapshot) {
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection c = connections.get(i);
+            if (c.out.hasRemaining()) { // Still busy writing the previous snapshot.
+                snapshotsSkipped.incrementAndGet();
+                continue;
+            }
+
+            long start = System.nanoTime();
+            Snapshot visible = c.hasView ? snapshot.filter(c.viewX, c.viewY, c.viewW, c.viewH) : snapshot;
+            Snapshot base = c.baseline();
+
+            scratch.clear();
+            scratch.position(WireFormat.FRAME_HEADER_SIZE);
+            scratch.put(WireFormat.MSG_SNAPSHOT);
+            WireFormat.putVarLong(scratch, visible.tick);
+            WireFormat.putVarLong(scratch, base.tick);
+            scratch = visible.encodeDelta(base, scratch);
+            scratch.putInt(0, scratch.position() - WireFormat.FRAME_HEADER_SIZE);
+            scratch.flip();
+
+            if (c.out.capacity() < scratch.remaining()) {
+                c.out = ByteBuffer.allocate(Math.max(scratch.remaining(), c.out.capacity() * 2));
+            }
+            c.out.clear();
+            c.out.put(scratch);
+            c.out.flip();
+            c.history[(int)(visible.tick % WireFormat.HISTORY_SIZE)] = visible;
+            encodeNanos.addAndGet(System.nanoTime() - start);
+
+            try {
+                flush(c);
+                snapshotsSent.incrementAndGet();
+            } catch (IOException ex) {
+                close(c);
+            }
+        }
+    }
+
+    private void close(Connection c) {
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ex) {
+            // The connection is being discarded anyway.
+        }
+        connections.remove(c);
+        clientCount = connections.size();
+    }
+}
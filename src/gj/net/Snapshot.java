@@ -0,0 +1,211 @@
+package gj.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable record of the quantised state of every replicated entity at a
+ * particular tick. The state is held in parallel primitive arrays sorted in
+ * ascending order of entity ID, which allows two snapshots to be compared with
+ * a single merge pass.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+final class Snapshot {
+    /**
+     * The empty snapshot used as the baseline for a client that hasn't
+     * acknowledged anything yet.
+     */
+    static final Snapshot EMPTY = new Snapshot(0, 0);
+
+    final long tick;
+    int count;
+    final int[] ids;
+    final int[] x;
+    final int[] y;
+    final int[] w;
+    final int[] h;
+    final int[] z;
+
+    Snapshot(long tick, int capacity) {
+        this.tick = tick;
+        this.count = 0;
+        this.ids = new int[capacity];
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.w = new int[capacity];
+        this.h = new int[capacity];
+        this.z = new int[capacity];
+    }
+
+    void add(int id, int qx, int qy, int qw, int qh, int qz) {
+        ids[count] = id;
+        x[count] = qx;
+        y[count] = qy;
+        w[count] = qw;
+        h[count] = qh;
+        z[count] = qz;
+        count++;
+    }
+
+    /**
+     * Returns the index of the entity with the given ID, or a negative value if
+     * it isn't present.
+     */
+    int indexOf(int id) {
+        return Arrays.binarySearch(ids, 0, count, id);
+    }
+
+    /**
+     * Returns a copy of this snapshot with its entries sorted by ID. This is
+     * used once by the server when a snapshot has been captured in the order
+     * that the world stores its entities.
+     */
+    Snapshot sortedById() {
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long)ids[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        Snapshot sorted = new Snapshot(tick, count);
+        for (int k = 0; k < count; k++) {
+            int i = (int)order[k];
+            sorted.add(ids[i], x[i], y[i], w[i], h[i], z[i]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the subset of this snapshot that intersects the given rectangle,
+     * which is measured in quantised world units.
+     */
+    Snapshot filter(int vx, int vy, int vw, int vh) {
+        // Count the matches first so that the filtered snapshot, which is kept in each client's history, is no larger than it needs to be.
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (intersects(i, vx, vy, vw, vh)) matches++;
+        }
+
+        Snapshot filtered = new Snapshot(tick, matches);
+        for (int i = 0; filtered.count < matches; i++) {
+            if (intersects(i, vx, vy, vw, vh)) {
+                filtered.add(ids[i], x[i], y[i], w[i], h[i], z[i]);
+            }
+        }
+        return filtered;
+    }
+
+    private boolean intersects(int i, int vx, int vy, int vw, int vh) {
+        return x[i] < vx + vw && x[i] + w[i] > vx && y[i] < vy + vh && y[i] + h[i] > vy;
+    }
+
+    /**
+     * Writes the records needed to turn the given baseline into this snapshot.
+     * Entities whose state is unchanged are omitted entirely, and each field
+     * that has changed is sent as a delta from its baseline value.
+     *
+     * @param base The snapshot that the receiver already holds.
+     * @param buf The buffer to write the records to.
+     * @return The buffer that was written to, which will differ from the one
+     * passed in if it had to grow.
+     */
+    ByteBuffer encodeDelta(Snapshot base, ByteBuffer buf) {
+        int i = 0, j = 0, lastId = 0;
+        while (i < base.count || j < count) {
+            int baseId = i < base.count ? base.ids[i] : Integer.MAX_VALUE;
+            int curId = j < count ? ids[j] : Integer.MAX_VALUE;
+            buf = WireFormat.ensureRemaining(buf, WireFormat.MAX_RECORD_SIZE);
+
+            if (curId < baseId) { // A new entity, sent as a delta from zero.
+                WireFormat.putVarInt(buf, curId - lastId);
+                lastId = curId;
+                putFields(buf, j, 0, 0, 0, 0, 0);
+                j++;
+            } else if (baseId < curId) { // An entity that is no longer visible.
+                WireFormat.putVarInt(buf, baseId - lastId);
+                lastId = baseId;
+                buf.put((byte)WireFormat.REMOVED);
+                i++;
+            } else {
+                int mask = fieldMask(j, base.x[i], base.y[i], base.w[i], base.h[i], base.z[i]);
+                if (mask != 0) {
+                    WireFormat.putVarInt(buf, curId - lastId);
+                    lastId = curId;
+                    putFields(buf, j, base.x[i], base.y[i], base.w[i], base.h[i], base.z[i]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return buf;
+    }
+
+    private int fieldMask(int j, int bx, int by, int bw, int bh, int bz) {
+        int mask = 0;
+        if (x[j] != bx) mask |= WireFormat.FIELD_X;
+        if (y[j] != by) mask |= WireFormat.FIELD_Y;
+        if (w[j] != bw) mask |= WireFormat.FIELD_W;
+        if (h[j] != bh) mask |= WireFormat.FIELD_H;
+        if (z[j] != bz) mask |= WireFormat.FIELD_Z;
+        return mask;
+    }
+
+    private void putFields(ByteBuffer buf, int j, int bx, int by, int bw, int bh, int bz) {
+        int mask = fieldMask(j, bx, by, bw, bh, bz);
+        buf.put((byte)mask);
+        if ((mask & WireFormat.FIELD_X) != 0) WireFormat.putSignedVarInt(buf, x[j] - bx);
+        if ((mask & WireFormat.FIELD_Y) != 0) WireFormat.putSignedVarInt(buf, y[j] - by);
+        if ((mask & WireFormat.FIELD_W) != 0) WireFormat.putSignedVarInt(buf, w[j] - bw);
+        if ((mask & WireFormat.FIELD_H) != 0) WireFormat.putSignedVarInt(buf, h[j] - bh);
+        if ((mask & WireFormat.FIELD_Z) != 0) WireFormat.putSignedVarInt(buf, z[j] - bz);
+    }
+
+    /**
+     * Reconstructs a snapshot from a baseline and the records written by
+     * {@link #encodeDelta(Snapshot, ByteBuffer)}. Records are read until the
+     * buffer's limit is reached.
+     *
+     * @param tick The tick of the snapshot being decoded.
+     * @param base The baseline the records were encoded against.
+     * @param buf The buffer positioned at the first record.
+     * @return The decoded snapshot.
+     */
+    static Snapshot decodeDelta(long tick, Snapshot base, ByteBuffer buf) {
+        // Every record adds at most one entity, and each one takes at least two bytes.
+        Snapshot result = new Snapshot(tick, base.count + buf.remaining() / 2);
+        int i = 0, id = 0;
+        while (buf.hasRemaining()) {
+            id += WireFormat.getVarInt(buf);
+            int mask = buf.get();
+
+            // Carry over every baseline entity that precedes this record unchanged.
+            while (i < base.count && base.ids[i] < id) {
+                result.add(base.ids[i], base.x[i], base.y[i], base.w[i], base.h[i], base.z[i]);
+                i++;
+            }
+
+            boolean inBase = i < base.count && base.ids[i] == id;
+            if ((mask & WireFormat.REMOVED) == 0) {
+                int bx = inBase ? base.x[i] : 0;
+                int by = inBase ? base.y[i] : 0;
+                int bw = inBase ? base.w[i] : 0;
+                int bh = inBase ? base.h[i] : 0;
+                int bz = inBase ? base.z[i] : 0;
+                if ((mask & WireFormat.FIELD_X) != 0) bx += WireFormat.getSignedVarInt(buf);
+                if ((mask & WireFormat.FIELD_Y) != 0) by += WireFormat.getSignedVarInt(buf);
+                if ((mask & WireFormat.FIELD_W) != 0) bw += WireFormat.getSignedVarInt(buf);
+                if ((mask & WireFormat.FIELD_H) != 0) bh += WireFormat.getSignedVarInt(buf);
+                if ((mask & WireFormat.FIELD_Z) != 0) bz += WireFormat.getSignedVarInt(buf);
+                result.add(id, bx, by, bw, bh, bz);
+            }
+            if (inBase) i++;
+        }
+        while (i < base.count) {
+            result.add(base.ids[i], base.x[i], base.y[i], base.w[i], base.h[i], base.z[i]);
+            i++;
+        }
+        return result;
+    }
+}
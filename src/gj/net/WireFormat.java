@@ -0,0 +1,136 @@
+package gj.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding helpers shared by the replication server and client.
+ * <p>
+ * Every message is sent as a frame made up of a four byte big-endian length
+ * followed by the payload, the first byte of which identifies the message
+ * type. Snapshot payloads consist of the snapshot's tick, the tick of the
+ * baseline it was encoded against and then a sequence of entity records in
+ * ascending order of entity ID until the end of the frame. Each record holds
+ * the (varint) difference between its ID and the previous record's ID, a
+ * field mask and a zig-zag varint delta for every field named in the mask.
+ * <p>
+ * Positions and sizes are quantised to fixed point values with a precision of
+ * 1/{@value #QUANT_SCALE} of a world unit before they are compared or sent.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+final class WireFormat {
+    /**
+     * The number of quantisation steps per world unit.
+     */
+    static final int QUANT_SCALE = 16;
+
+    /**
+     * The number of snapshots remembered on each side of a connection. A
+     * client that falls further behind than this in its acknowledgements is
+     * simply sent its next snapshot in full.
+     */
+    static final int HISTORY_SIZE = 64;
+
+    // Server to client message types.
+    static final byte MSG_SNAPSHOT = 1;
+
+    // Client to server message types.
+    static final byte MSG_VIEW = 1;
+    static final byte MSG_ACK = 2;
+
+    // The length of each client to server message, including its type byte.
+    static final int VIEW_LENGTH = 1 + 4 * 8;
+    static final int ACK_LENGTH = 1 + 8;
+
+    // Record field mask bits.
+    static final int FIELD_X = 1;
+    static final int FIELD_Y = 2;
+    static final int FIELD_W = 4;
+    static final int FIELD_H = 8;
+    static final int FIELD_Z = 16;
+    static final int REMOVED = 32;
+
+    /**
+     * The largest number of bytes a single entity record can occupy.
+     */
+    static final int MAX_RECORD_SIZE = 5 + 1 + 5 * 5;
+
+    /**
+     * The size of the length prefix at the start of every frame.
+     */
+    static final int FRAME_HEADER_SIZE = 4;
+
+    private WireFormat() {
+    }
+
+    static int quantize(double value) {
+        return (int)Math.round(value * QUANT_SCALE);
+    }
+
+    static double dequantize(int value) {
+        return value / (double)QUANT_SCALE;
+    }
+
+    static void putVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte)value);
+    }
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte)value);
+    }
+
+    static int getVarInt(ByteBuffer buf) {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            result |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+    }
+
+    /**
+     * Writes a signed value as a zig-zag encoded varint, so that small
+     * negative deltas take as few bytes as small positive ones.
+     */
+    static void putSignedVarInt(ByteBuffer buf, int value) {
+        putVarInt(buf, (value << 1) ^ (value >> 31));
+    }
+
+    static int getSignedVarInt(ByteBuffer buf) {
+        int raw = getVarInt(buf);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Ensures that the given buffer has room for at least the given number of
+     * additional bytes, replacing it with a larger copy if it doesn't.
+     *
+     * @return The buffer to continue writing to.
+     */
+    static ByteBuffer ensureRemaining(ByteBuffer buf, int needed) {
+        if (buf.remaining() >= needed) return buf;
+        int newCapacity = Math.max(buf.capacity() * 2, buf.position() + needed);
+        ByteBuffer bigger = ByteBuffer.allocate(newCapacity);
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+}
@@ -0,0 +1,167 @@
+package gj.script;
+
+import gj.entities.Entity;
+
+/**
+ * The state of a single entity's run through a {@link Script}. This plays the
+ * part of a lightweight continuation: it records which step the script is up
+ * to, along with the small amount of per-run state needed by the built-in
+ * steps, so that the script can be resumed on the next tick.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class RunningScript {
+    private final ScriptScheduler scheduler;
+    private final Entity entity;
+    private final Script script;
+
+    /**
+     * The index of the step currently being executed.
+     */
+    private int stepIndex;
+
+    /**
+     * Whether the current step's begin() method has been called yet.
+     */
+    private boolean stepBegun;
+
+    /**
+     * General-purpose countdown used by timed steps, in seconds.
+     */
+    private double timer;
+
+    /**
+     * State belonging to the current step, for custom steps that need more
+     * than the timer. This is cleared whenever a new step begins.
+     */
+    private Object stepState;
+
+    /**
+     * The signal the current step is waiting for, or null if it isn't waiting
+     * for one.
+     */
+    private Object awaitedSignal;
+
+    /**
+     * Whether the signal the current step is waiting for has been raised.
+     */
+    private boolean signalled;
+
+    private boolean finished;
+
+    RunningScript(ScriptScheduler scheduler, Entity entity, Script script) {
+        this.scheduler = scheduler;
+        this.entity = entity;
+        this.script = script;
+        this.stepIndex = 0;
+        this.stepBegun = false;
+        this.finished = script.getLength() == 0;
+    }
+
+    /**
+     * Resumes the script, executing steps until one of them needs to wait for
+     * a later tick. Only the first step executed is given the elapsed time;
+     * any step reached later in the same tick starts with no time elapsed.
+     *
+     * @param dt The time that has passed since the previous tick, in seconds.
+     */
+    void resume(double dt) {
+        // Never execute more steps than the script contains in a single tick, so
+        // that a looping script made only of instant steps can't hang the world.
+        for (int executed = 0; !finished && executed <= script.getLength(); executed++) {
+            Step step = script.getStep(stepIndex);
+            if (!stepBegun) {
+                stepBegun = true;
+                signalled = false;
+                stepState = null;
+                step.begin(this);
+            }
+            if (!step.update(this, dt)) return;
+
+            dt = 0;
+            stepBegun = false;
+            stopWaiting();
+            stepIndex++;
+            if (stepIndex == script.getLength()) {
+                if (script.isLooping()) stepIndex = 0;
+                else finished = true;
+            }
+        }
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public double getTimer() {
+        return timer;
+    }
+
+    public void setTimer(double timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * Returns the state stored by the current step using
+     * {@link #setStepState(Object)}.
+     *
+     * @return The current step's state, or null if it hasn't stored any.
+     */
+    public Object getStepState() {
+        return stepState;
+    }
+
+    /**
+     * Stores state belonging to this run of the current step, such as a
+     * target or a counter. Since steps are shared between every entity running
+     * a script, this is where a custom step should keep anything that isn't
+     * the same for every run. The state is discarded when the step finishes.
+     *
+     * @param state The state to store.
+     */
+    public void setStepState(Object state) {
+        this.stepState = state;
+    }
+
+    /**
+     * Registers this run as waiting for the given signal. Used by steps that
+     * wait for signals. A step can only wait for one signal at a time, and
+     * stops waiting once it finishes.
+     *
+     * @param key The signal to wait for.
+     */
+    public void awaitSignal(Object key) {
+        stopWaiting();
+        awaitedSignal = key;
+        scheduler.addWaiter(key, this);
+    }
+
+    public boolean isSignalled() {
+        return signalled;
+    }
+
+    void signal() {
+        this.signalled = true;
+        this.awaitedSignal = null; // The scheduler has already forgotten this run.
+    }
+
+    private void stopWaiting() {
+        if (awaitedSignal != null) {
+            scheduler.removeWaiter(awaitedSignal, this);
+            awaitedSignal = null;
+        }
+    }
+
+    /**
+     * Stops this script. It will be removed from its scheduler on the next tick.
+     */
+    public void cancel() {
+        this.finished = true;
+        stopWaiting();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,177 @@
+package gj.script;
+
+import gj.entities.Entity;
+import gj.util.Transform;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A sequential behaviour script that can be run by any number of entities at
+ * once. Scripts are written as a chain of steps, for example:
+ * <pre>
+ * Script patrol = new Script()
+ *         .moveTo(100, 0, 50)
+ *         .waitFor(2.0)
+ *         .moveTo(0, 0, 50)
+ *         .waitForSignal("alarm")
+ *         .run(e -&gt; e.getTransform().scale(2))
+ *         .repeat();
+ * </pre>
+ * Rather than giving each running script its own thread, every script is
+ * executed by the {@link ScriptScheduler} of its game world, which resumes
+ * each one exactly once per tick. A running script is therefore just a small
+ * object recording which step it is up to, which keeps tens of thousands of
+ * concurrently scripted entities cheap and keeps the order in which scripts
+ * run deterministic.
+ * <p>
+ * A script should be fully built before it is first run, since the same steps
+ * are shared by every entity running it.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class Script {
+    /**
+     * The steps making up the script, in the order they are executed.
+     */
+    private final List<Step> steps;
+
+    /**
+     * Whether the script starts again from its first step once it finishes.
+     */
+    private boolean looping;
+
+    public Script() {
+        this.steps = new ArrayList<>();
+        this.looping = false;
+    }
+
+    /**
+     * Appends a custom step to this script.
+     *
+     * @param step The step to add.
+     * @return This script, so that calls can be chained.
+     */
+    public Script then(Step step) {
+        steps.add(step);
+        return this;
+    }
+
+    /**
+     * Appends a step that performs the given action on the scripted entity and
+     * then immediately moves on.
+     *
+     * @param action The action to perform.
+     * @return This script, so that calls can be chained.
+     */
+    public Script run(Consumer<Entity> action) {
+        return then((run, dt) -> {
+            action.accept(run.getEntity());
+            return true;
+        });
+    }
+
+    /**
+     * Appends a step that waits for the given amount of logical time.
+     *
+     * @param seconds The time to wait, in seconds.
+     * @return This script, so that calls can be chained.
+     */
+    public Script waitFor(double seconds) {
+        return then(new Step() {
+            @Override
+            public void begin(RunningScript run) {
+                run.setTimer(seconds);
+            }
+
+            @Override
+            public boolean update(RunningScript run, double dt) {
+                run.setTimer(run.getTimer() - dt);
+                return run.getTimer() <= 0;
+            }
+        });
+    }
+
+    /**
+     * Appends a step that waits until the given condition holds for the
+     * scripted entity. The condition is checked once per tick.
+     *
+     * @param condition The condition to wait for.
+     * @return This script, so that calls can be chained.
+     */
+    public Script waitUntil(Predicate<Entity> condition) {
+        return then((run, dt) -> condition.test(run.getEntity()));
+    }
+
+    /**
+     * Appends a step that waits until the given signal is raised using
+     * {@link ScriptScheduler#signal(Object)}. Only signals raised after the
+     * step begins are noticed.
+     *
+     * @param key The signal to wait for.
+     * @return This script, so that calls can be chained.
+     */
+    public Script waitForSignal(Object key) {
+        return then(new Step() {
+            @Override
+            public void begin(RunningScript run) {
+                run.awaitSignal(key);
+            }
+
+            @Override
+            public boolean update(RunningScript run, double dt) {
+                return run.isSignalled();
+            }
+        });
+    }
+
+    /**
+     * Appends a step that moves the scripted entity in a straight line towards
+     * the given coordinates at a constant speed, finishing once it arrives. The
+     * coordinates are relative to the entity's parent if it has one, and are
+     * world coordinates otherwise.
+     *
+     * @param x The destination X coordinate.
+     * @param y The destination Y coordinate.
+     * @param speed The speed to move at, in world units per second.
+     * @return This script, so that calls can be chained.
+     */
+    public Script moveTo(double x, double y, double speed) {
+        return then((run, dt) -> {
+            Transform t = run.getEntity().getTransform();
+            double dx = x - t.getX(), dy = y - t.getY();
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            double travel = speed * dt;
+            if (travel >= dist) {
+                t.setPosition(x, y);
+                return true;
+            }
+            t.translate(dx / dist * travel, dy / dist * travel);
+            return false;
+        });
+    }
+
+    /**
+     * Makes this script start again from its first step whenever it finishes.
+     *
+     * @return This script.
+     */
+    public Script repeat() {
+        this.looping = true;
+        return this;
+    }
+
+    Step getStep(int index) {
+        return steps.get(index);
+    }
+
+    int getLength() {
+        return steps.size();
+    }
+
+    boolean isLooping() {
+        return looping;
+    }
+}
@@ -0,0 +1,151 @@
+package gj.script;
+
+import gj.entities.Entity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes the behaviour scripts of every entity in a game world. Each game
+ * world owns a scheduler, which it resumes once per tick after every entity
+ * has been updated.
+ * <p>
+ * Scripts are resumed in the order in which they were started, and a script
+ * started during a tick (e.g. by another script) first runs on the following
+ * tick, so the behaviour of a world is the same every time it is simulated
+ * with the same sequence of time steps.
+ * <p>
+ * Like the rest of the world's state, the scheduler should only be used from
+ * the thread running the world's main loop once the world has started.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class ScriptScheduler {
+    /**
+     * Every script that hasn't finished yet, in the order they were started.
+     */
+    private final List<RunningScript> running;
+
+    /**
+     * The scripts waiting for each signal.
+     */
+    private final Map<Object, List<RunningScript>> waiters;
+
+    /**
+     * The unfinished scripts being run by each entity, so that they can be
+     * cancelled when the entity leaves the world.
+     */
+    private final Map<Entity, List<RunningScript>> byEntity;
+
+    public ScriptScheduler() {
+        this.running = new ArrayList<>();
+        this.waiters = new HashMap<>();
+        this.byEntity = new IdentityHashMap<>();
+    }
+
+    /**
+     * Starts running the given script for the given entity. The script's first
+     * step is executed on the next tick.
+     *
+     * @param ent The entity to run the script for.
+     * @param script The script to run.
+     * @return A handle that can be used to check on or cancel the script.
+     */
+    public RunningScript start(Entity ent, Script script) {
+        RunningScript run = new RunningScript(this, ent, script);
+        if (run.isFinished()) return run; // An empty script has nothing to run.
+        running.add(run);
+        List<RunningScript> runs = byEntity.get(ent);
+        if (runs == null) {
+            runs = new ArrayList<>(1);
+            byEntity.put(ent, runs);
+        }
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Cancels every script being run by the given entity. This is called when
+     * an entity is removed from its world, so that neither the scripts nor the
+     * entity are kept alive afterwards.
+     *
+     * @param ent The entity whose scripts should be cancelled.
+     */
+    public void cancelAll(Entity ent) {
+        List<RunningScript> runs = byEntity.remove(ent);
+        if (runs != null) {
+            for (RunningScript run : runs) run.cancel();
+        }
+    }
+
+    /**
+     * Raises the given signal, allowing every script currently waiting for it
+     * to continue when it is next resumed.
+     *
+     * @param key The signal to raise.
+     */
+    public void signal(Object key) {
+        List<RunningScript> waiting = waiters.remove(key);
+        if (waiting != null) {
+            for (RunningScript run : waiting) run.signal();
+        }
+    }
+
+    void addWaiter(Object key, RunningScript run) {
+        List<RunningScript> waiting = waiters.get(key);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            waiters.put(key, waiting);
+        }
+        waiting.add(run);
+    }
+
+    void removeWaiter(Object key, RunningScript run) {
+        List<RunningScript> waiting = waiters.get(key);
+        if (waiting != null && waiting.remove(run) && waiting.isEmpty()) {
+            waiters.remove(key);
+        }
+    }
+
+    /**
+     * Resumes every running script, then discards those that have finished.
+     *
+     * @param dt The amount of time that has passed since the previous tick,
+     * measured in seconds.
+     */
+    public void tick(double dt) {
+        int count = running.size(); // Scripts started during this tick wait until the next one.
+        for (int i = 0; i < count; i++) {
+            running.get(i).resume(dt);
+        }
+
+        // Remove finished scripts in a single pass, preserving the order of the rest.
+        int kept = 0;
+        for (int i = 0; i < running.size(); i++) {
+            RunningScript run = running.get(i);
+            if (!run.isFinished()) {
+                running.set(kept++, run);
+            } else {
+                forget(run);
+            }
+        }
+        running.subList(kept, running.size()).clear();
+    }
+
+    private void forget(RunningScript run) {
+        List<RunningScript> runs = byEntity.get(run.getEntity());
+        if (runs != null && runs.remove(run) && runs.isEmpty()) {
+            byEntity.remove(run.getEntity());
+        }
+    }
+
+    /**
+     * @return The number of scripts that haven't finished yet.
+     */
+    public int getRunningCount() {
+        return running.size();
+    }
+}
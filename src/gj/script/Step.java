@@ -0,0 +1,33 @@
+package gj.script;
+
+/**
+ * A single step in a {@link Script}. Steps are shared between every entity
+ * running the same script, so any state that belongs to a particular run of a
+ * step must be kept in the {@link RunningScript} passed to it (using its timer
+ * or {@link RunningScript#setStepState(Object)}) rather than in the step
+ * itself.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public interface Step {
+    /**
+     * Called when a running script reaches this step, before its first update.
+     * The default implementation of this method does nothing.
+     *
+     * @param run The running script that has reached this step.
+     */
+    default void begin(RunningScript run) {
+    }
+
+    /**
+     * Advances this step by the given amount of time.
+     *
+     * @param run The running script that is executing this step.
+     * @param dt The amount of time that has passed since the previous update,
+     * measured in seconds.
+     * @return True if the step has finished, in which case the script moves
+     * straight on to its next step within the same tick.
+     */
+    boolean update(RunningScript run, double dt);
+}
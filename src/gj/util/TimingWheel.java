@@ -0,0 +1,232 @@
+package gj.util;
+
+/**
+ * A hierarchical timing wheel used to schedule callbacks a whole number of
+ * ticks into the future.
+ * <p>
+ * The wheel is made up of several levels of {@value #SLOTS} slots. Level 0
+ * has one slot per tick, and each slot of every higher level covers the
+ * entire span of the level beneath it. A timeout is placed in the lowest
+ * level whose span reaches its deadline and is moved down a level each time
+ * the wheel turns past the slot holding it, until it reaches level 0 and
+ * fires. Scheduling and cancelling are therefore constant time operations,
+ * and advancing the wheel only costs work for the timeouts that actually fire
+ * (or move down a level), however many are pending.
+ * <p>
+ * Timeouts that fall due on the same tick fire in the order in which they
+ * were scheduled, where a repeating timeout counts as being scheduled again
+ * each time it fires. To guarantee this, each timeout carries a sequence
+ * number and every slot is kept in sequence order; a newly scheduled timeout
+ * always belongs at the end of its slot, so only timeouts moving down a level
+ * ever need to be placed further forward. The wheel isn't thread-safe.
+ *
+ * @author Joseph
+ * @version 18-Oct-2026
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    /**
+     * The longest delay that can be scheduled, in ticks.
+     */
+    public static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * The first and last timeouts in each slot, indexed by level * SLOTS + slot.
+     * Each slot holds a doubly linked list so that timeouts can be removed
+     * without searching.
+     */
+    private final Timeout[] heads;
+    private final Timeout[] tails;
+
+    /**
+     * The tick that the wheel has most recently advanced to.
+     */
+    private long currentTick;
+
+    /**
+     * The sequence number to give the next timeout scheduled.
+     */
+    private long nextSequence;
+
+    private int size;
+
+    public TimingWheel() {
+        this.heads = new Timeout[LEVELS * SLOTS];
+        this.tails = new Timeout[LEVELS * SLOTS];
+        this.currentTick = 0;
+        this.nextSequence = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Schedules a task to run once after the given number of ticks.
+     *
+     * @param delay The number of ticks to wait. A delay of less than one tick
+     * is treated as one tick, i.e. the task runs the next time the wheel
+     * advances.
+     * @param task The task to run.
+     * @return A handle that can be used to cancel the task.
+     * @throws IllegalArgumentException If the delay is greater than MAX_DELAY.
+     */
+    public Timeout schedule(long delay, Runnable task) throws IllegalArgumentException {
+        return scheduleRepeating(delay, 0, task);
+    }
+
+    /**
+     * Schedules a task to run after the given number of ticks and then
+     * repeatedly with the given period until it is cancelled.
+     *
+     * @param delay The number of ticks before the first run.
+     * @param period The number of ticks between runs, or 0 to run only once.
+     * @param task The task to run.
+     * @return A handle that can be used to cancel the task.
+     * @throws IllegalArgumentException If the delay or period is greater than
+     * MAX_DELAY, or the period is negative.
+     */
+    public Timeout scheduleRepeating(long delay, long period, Runnable task) throws IllegalArgumentException {
+        if (delay > MAX_DELAY || period > MAX_DELAY || period < 0) {
+            throw new IllegalArgumentException("Invalid delay or period: " + delay + ", " + period);
+        }
+        Timeout t = new Timeout(this, currentTick + Math.max(1, delay), period, task);
+        t.sequence = nextSequence++;
+        insert(t);
+        return t;
+    }
+
+    /**
+     * Advances the wheel by a single tick, running every task that falls due.
+     * Tasks may safely schedule or cancel other tasks while they run.
+     */
+    public void advance() {
+        currentTick++;
+
+        // Find the highest level that has just turned over to a new slot, then
+        // move its timeouts, and those of every level below it, down a level.
+        int topLevel = 0;
+        while (topLevel + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (topLevel + 1))) - 1)) == 0) {
+            topLevel++;
+        }
+        for (int level = topLevel; level > 0; level--) {
+            int index = level * SLOTS + (int)((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            while (heads[index] != null) {
+                Timeout t = heads[index];
+                unlink(t);
+                insert(t);
+            }
+        }
+
+        int index = (int)(currentTick & SLOT_MASK);
+        while (heads[index] != null) {
+            Timeout t = heads[index];
+            unlink(t);
+            if (t.period > 0) { // Reschedule before running so that the task may cancel itself.
+                t.deadline = currentTick + t.period;
+                t.sequence = nextSequence++;
+                insert(t);
+            }
+            t.task.run();
+        }
+    }
+
+    /**
+     * @return The tick that the wheel has most recently advanced to.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return The number of timeouts waiting to fire.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void insert(Timeout t) {
+        long delta = t.deadline - currentTick;
+        int level = 0;
+        while (delta >= (1L << (SLOT_BITS * (level + 1)))) level++;
+
+        int index = level * SLOTS + (int)((t.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        t.slot = index;
+
+        // Find the last timeout scheduled before this one, which is normally the tail of the slot.
+        Timeout before = tails[index];
+        while (before != null && before.sequence > t.sequence) before = before.prev;
+        t.prev = before;
+        t.next = (before != null) ? before.next : heads[index];
+        if (t.next != null) t.next.prev = t;
+        else tails[index] = t;
+        if (before != null) before.next = t;
+        else heads[index] = t;
+        size++;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else heads[t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        else tails[t.slot] = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.slot = -1;
+        size--;
+    }
+
+    /**
+     * A handle for a task scheduled on a timing wheel.
+     */
+    public static final class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+
+        /**
+         * The order in which this timeout was (most recently) scheduled.
+         */
+        private long sequence;
+
+        /**
+         * The slot currently holding this timeout, or -1 if it isn't
+         * scheduled.
+         */
+        private int slot;
+        private Timeout prev, next;
+
+        private Timeout(TimingWheel wheel, long deadline, long period, Runnable task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.period = period;
+            this.task = task;
+            this.slot = -1;
+        }
+
+        /**
+         * Cancels this timeout so that its task doesn't run again.
+         *
+         * @return True if the timeout was pending, or false if it had already
+         * fired (and doesn't repeat) or had already been cancelled.
+         */
+        public boolean cancel() {
+            if (slot < 0) return false;
+            wheel.unlink(this);
+            return true;
+        }
+
+        public boolean isPending() {
+            return slot >= 0;
+        }
+
+        /**
+         * @return The tick on which this timeout will next fire.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -1,16 +1,55 @@
 package gj.util;
 
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents a rectangular world transform with a position and a
  * size. It is implemented as an extension to Rectangle2D.Double and adds
  * support for modifying the position and size of the rectangle at runtime.
+ * <p>
+ * Transforms can be arranged in a hierarchy. The position of a transform that
+ * has a parent is relative to the position of its parent, so moving a parent
+ * moves all of its descendants with it. The rectangle represented by the
+ * transform itself is always its local rectangle; its position in the world is
+ * given by {@link #getWorldBounds()}, which is computed lazily and cached until
+ * the transform or one of its ancestors next moves. Only positions are
+ * inherited, so the size of a transform is unaffected by its parent.
+ * <p>
+ * Changes to the transform must be made through its methods rather than by
+ * assigning its public fields, as otherwise its cached world bounds won't be
+ * updated.
  * 
  * @author Joseph
  * @version 04-Jun-2016
  */
 public class Transform extends Rectangle2D.Double {
+    /**
+     * The transform that this one is positioned relative to, or null if it is
+     * positioned in world coordinates.
+     */
+    private Transform parent;
+    
+    /**
+     * The transforms positioned relative to this one, or null if there are
+     * none.
+     */
+    private List<Transform> children;
+    
+    /**
+     * The cached bounds of this transform in world coordinates, or null if they
+     * haven't been computed yet.
+     */
+    private Rectangle2D.Double worldBounds;
+    
+    /**
+     * Whether the cached world bounds are out of date. Whenever a transform is
+     * dirty, so are all of its descendants, which means marking a subtree as
+     * dirty can stop as soon as it reaches a transform that already is.
+     */
+    private boolean worldDirty;
+    
     /**
      * Constructor for a new Transform.
      * 
@@ -54,4 +93,90 @@ public class Transform extends Rectangle2D.Double {
     public void scale(double scaleFactor) {
         setSize(this.getWidth() * scaleFactor, this.getHeight() * scaleFactor);
     }
+    
+    /**
+     * Every modification to the rectangle passes through this method, which
+     * is overridden to invalidate the cached world bounds of this transform
+     * and its descendants.
+     */
+    @Override
+    public void setRect(double x, double y, double w, double h) {
+        super.setRect(x, y, w, h);
+        markWorldDirty();
+    }
+    
+    private void markWorldDirty() {
+        if (worldDirty) return; // The whole subtree must already be dirty.
+        worldDirty = true;
+        if (children != null) {
+            for (Transform child : children) child.markWorldDirty();
+        }
+    }
+    
+    /**
+     * Makes this transform relative to the given parent. The local position of
+     * this transform is kept, so its position in the world will change unless
+     * it is adjusted accordingly.
+     * 
+     * @param newParent The transform to position this one relative to, or null
+     * to position it in world coordinates.
+     * @throws IllegalArgumentException If the new parent is this transform or
+     * one of its descendants.
+     */
+    public void setParent(Transform newParent) throws IllegalArgumentException {
+        for (Transform t = newParent; t != null; t = t.parent) {
+            if (t == this) throw new IllegalArgumentException("A transform cannot be its own ancestor.");
+        }
+        
+        if (parent != null) parent.removeChild(this);
+        this.parent = newParent;
+        if (newParent != null) {
+            if (newParent.children == null) newParent.children = new ArrayList<>();
+            newParent.children.add(this);
+        }
+        
+        worldDirty = false; // Force the subtree to be marked even if this transform was already dirty.
+        markWorldDirty();
+    }
+    
+    /**
+     * Removes the given transform from this one's children. Rectangles are
+     * compared by value, so List.remove() could remove a sibling that happens
+     * to have the same local rectangle; the child is found by identity
+     * instead.
+     */
+    private void removeChild(Transform child) {
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) == child) {
+                children.remove(i);
+                return;
+            }
+        }
+    }
+    
+    public Transform getParent() {
+        return parent;
+    }
+    
+    /**
+     * Returns the bounds of this transform in world coordinates, recomputing
+     * them first if this transform or any of its ancestors has moved since
+     * they were last computed.
+     * 
+     * @return The world bounds. The returned rectangle is owned by this
+     * transform and must not be modified.
+     */
+    public Rectangle2D getWorldBounds() {
+        if (worldBounds == null) worldBounds = new Rectangle2D.Double();
+        if (worldDirty) {
+            if (parent == null) {
+                worldBounds.setRect(x, y, width, height);
+            } else {
+                Rectangle2D parentBounds = parent.getWorldBounds();
+                worldBounds.setRect(parentBounds.getX() + x, parentBounds.getY() + y, width, height);
+            }
+            worldDirty = false;
+        }
+        return worldBounds;
+    }
 }